@@ -0,0 +1,31 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.in.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 20:24:10
+ * File: RateLimitRequest.java
+ */
+
+/**
+ * Nuevos límites de un camino SFTP (0 = sin límite, null = sin cambios)
+ */
+public record RateLimitRequest(
+        @PositiveOrZero Long opsPerSecond,
+        @PositiveOrZero Long bytesPerSecond
+) {
+}
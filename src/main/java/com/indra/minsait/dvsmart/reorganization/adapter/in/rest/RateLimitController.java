@@ -0,0 +1,91 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.in.rest;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.in.dto.RateLimitRequest;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 20:27:45
+ * File: RateLimitController.java
+ */
+
+/**
+ * Consulta y ajuste en caliente de los límites de ritmo SFTP
+ * (origin-read, dest-write, cleanup-delete). Aplica a las operaciones siguientes,
+ * también durante un job en curso.
+ * # Ver límites actuales
+	curl http://localhost:8080/dvsmart-reorganization-api/api/batch/rate-limits | jq
+	
+	# Limitar lecturas de origen a 50 MB/s y 200 archivos/s
+	curl -X PUT -H "Content-Type: application/json" -d '{"bytesPerSecond":52428800,"opsPerSecond":200}' \
+	  http://localhost:8080/dvsmart-reorganization-api/api/batch/rate-limits/origin-read | jq
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/batch/rate-limits")
+public class RateLimitController {
+
+    private final Map<String, RateLimiter> rateLimiters = new LinkedHashMap<>();
+
+    public RateLimitController(List<RateLimiter> rateLimiters) {
+        rateLimiters.forEach(limiter -> this.rateLimiters.put(limiter.getName(), limiter));
+    }
+
+    /**
+     * GET /api/batch/rate-limits
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getRateLimits() {
+        return ResponseEntity.ok(rateLimiters.values().stream().map(this::toView).toList());
+    }
+
+    /**
+     * PUT /api/batch/rate-limits/{name}
+     */
+    @PutMapping("/{name}")
+    public ResponseEntity<Map<String, Object>> updateRateLimit(@PathVariable String name,
+                                                               @Valid @RequestBody RateLimitRequest request) {
+        RateLimiter limiter = rateLimiters.get(name);
+        if (limiter == null) {
+            throw new IllegalArgumentException("Unknown rate limiter: " + name + " (available: " + rateLimiters.keySet() + ")");
+        }
+
+        log.info("Updating rate limit {}: ops/s={}, bytes/s={}", name, request.opsPerSecond(), request.bytesPerSecond());
+
+        if (request.opsPerSecond() != null) {
+            limiter.setOpsPerSecond(request.opsPerSecond());
+        }
+        if (request.bytesPerSecond() != null) {
+            limiter.setBytesPerSecond(request.bytesPerSecond());
+        }
+        return ResponseEntity.ok(toView(limiter));
+    }
+
+    private Map<String, Object> toView(RateLimiter limiter) {
+        return Map.of(
+            "name", limiter.getName(),
+            "opsPerSecond", limiter.getOpsPerSecond(),
+            "bytesPerSecond", limiter.getBytesPerSecond()
+        );
+    }
+}
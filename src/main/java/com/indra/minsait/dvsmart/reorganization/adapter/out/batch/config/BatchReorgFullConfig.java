@@ -14,40 +14,60 @@
 package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.config;
 
 import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.listener.JobExecutionAuditListener;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.listener.JobStartStateListener;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.listener.SftpPoolWarmUpListener;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.partition.FilesIndexRangePartitioner;
 import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.processor.CleanupValidator;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader.ClaimingFilesIndexItemReader;
 import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader.CleanupCandidateReader;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader.FilesIndexEntryItemReader;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader.FilesIndexLeaseSweeper;
 import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader.MongoIndexedDisorganizedFileItemReader;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.tasklet.DestinationTreePreparationTasklet;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.tasklet.EmptyDirectoryPruneTasklet;
 import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.writter.OriginFileDeleteWriter;
 import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.writter.SftpMoveAndIndexItemWriter;
-import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.DisorganizedFilesIndexDocument;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.FilesIndexEntry;
 import com.indra.minsait.dvsmart.reorganization.domain.model.ArchivoLegacy;
 import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupCandidate;
 import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupResult;
 import com.indra.minsait.dvsmart.reorganization.domain.service.FileReorganizationService;
 import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties.ExecutionMode;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.MongoConfigProperties;
 import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.job.Job;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
 import org.springframework.batch.core.listener.StepExecutionListener;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.Step;
 import org.springframework.batch.core.step.StepExecution;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.infrastructure.item.ItemProcessor;
-import org.springframework.batch.infrastructure.item.data.MongoCursorItemReader;
+import org.springframework.batch.infrastructure.item.ItemReader;
 import org.springframework.batch.infrastructure.item.support.CompositeItemProcessor;
 import org.springframework.batch.integration.async.AsyncItemProcessor;
 import org.springframework.batch.integration.async.AsyncItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.concurrent.Future;
 
@@ -69,16 +89,35 @@ public class BatchReorgFullConfig {
     private final SftpConfigProperties sftpProps;
     private final BatchConfigProperties batchProps;
     private final JobExecutionAuditListener auditListener;
+    private final JobStartStateListener jobStartStateListener;
+    private final SftpPoolWarmUpListener sftpPoolWarmUpListener;
     private final CleanupCandidateReader cleanupCandidateReader;
     private final CleanupValidator cleanupValidator;
     private final OriginFileDeleteWriter originFileDeleteWriter;
+    private final DestinationTreePreparationTasklet destinationTreePreparationTasklet;
+    private final EmptyDirectoryPruneTasklet emptyDirectoryPruneTasklet;
+    private final FilesIndexRangePartitioner filesIndexRangePartitioner;
+    private final ObjectProvider<PartitionHandler> reorgRemotePartitionHandler;
+    private final FilesIndexLeaseSweeper leaseSweeper;
+    private final MongoTemplate mongoTemplate;
+    private final MongoConfigProperties mongoProps;
 
     // ========================================================================
     // BEANS EXISTENTES (SIN CAMBIOS)
     // ========================================================================
 
+    /**
+     * Executor del AsyncItemProcessor
+     * VIRTUAL: un hilo virtual por item (sin límite de cola que desbordar)
+     */
     @Bean(name = "batchTaskExecutor")
     TaskExecutor batchTaskExecutor() {
+        if (batchProps.getExecutionMode() == ExecutionMode.VIRTUAL) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("batch-reorg-async-vt-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(batchProps.getThreadPoolSize());
         executor.setMaxPoolSize(batchProps.getThreadPoolSize());
@@ -92,27 +131,31 @@ public class BatchReorgFullConfig {
 
     /**
      * Reader con cursor streaming
-     * Usa MongoCursorItemReader para millones de registros
+     * Proyección + codec: decodifica solo los campos necesarios a FilesIndexEntry
      */
     @Bean
-    MongoCursorItemReader<DisorganizedFilesIndexDocument> archivoIndexReader() {
+    FilesIndexEntryItemReader archivoIndexReader() {
         return mongoReader.createReader();
     }
 
     /**
-     * Processor 1: Convierte Document MongoDB → ArchivoLegacy
+     * Processor 1: Convierte FilesIndexEntry → ArchivoLegacy
      */
     @Bean
-    ItemProcessor<DisorganizedFilesIndexDocument, ArchivoLegacy> documentToLegacyProcessor() {
-        return doc -> {
-            if (doc == null) {
+    ItemProcessor<FilesIndexEntry, ArchivoLegacy> documentToLegacyProcessor() {
+        return entry -> {
+            if (entry == null) {
                 return null;
             }
             return ArchivoLegacy.builder()
-                    .idUnico(doc.getIdUnico())
-                    .rutaOrigen(doc.getSourcePath())
-                    .nombre(doc.getFileName())
-                    .mtime(doc.getLastModificationDate())
+                    .id(entry.id())
+                    .idUnico(entry.idUnico())
+                    .rutaOrigen(entry.sourcePath())
+                    .nombre(entry.fileName())
+                    .mtime(entry.lastModificationDate())
+                    .tamano(entry.fileSize())
+                    .claimOwner(entry.claimOwner())
+                    .claimToken(entry.claimToken())
                     .build();
         };
     }
@@ -126,9 +169,9 @@ public class BatchReorgFullConfig {
             if (archivo == null) {
                 return null;
             }
-            String destPath = reorganizationService.calculateDestinationPath(
-                archivo, sftpProps.getDest().getBaseDir());
-            log.trace("Calculated destination: {} -> {}", archivo.getRutaOrigen(), destPath);
+            archivo.setRutaDestino(reorganizationService.calculateDestinationPath(
+                archivo, sftpProps.getDest().getBaseDir()));
+            log.trace("Calculated destination: {} -> {}", archivo.getRutaOrigen(), archivo.getRutaDestino());
             return archivo;
         };
     }
@@ -137,8 +180,8 @@ public class BatchReorgFullConfig {
      * Composite Processor: Combina Document→Legacy + Hash
      */
     @Bean
-    CompositeItemProcessor<DisorganizedFilesIndexDocument, ArchivoLegacy> compositeProcessor() {
-        CompositeItemProcessor<DisorganizedFilesIndexDocument, ArchivoLegacy> processor = new CompositeItemProcessor<>();
+    CompositeItemProcessor<FilesIndexEntry, ArchivoLegacy> compositeProcessor() {
+        CompositeItemProcessor<FilesIndexEntry, ArchivoLegacy> processor = new CompositeItemProcessor<>();
         processor.setDelegates(Arrays.asList(
             documentToLegacyProcessor(),
             hashPartitionProcessor()
@@ -150,9 +193,9 @@ public class BatchReorgFullConfig {
      * Async Processor para procesamiento paralelo
      */
     @Bean
-    AsyncItemProcessor<DisorganizedFilesIndexDocument, ArchivoLegacy> asyncProcessor() {
-        AsyncItemProcessor<DisorganizedFilesIndexDocument, ArchivoLegacy> asyncProcessor = 
-            new AsyncItemProcessor<DisorganizedFilesIndexDocument, ArchivoLegacy>(compositeProcessor());
+    AsyncItemProcessor<FilesIndexEntry, ArchivoLegacy> asyncProcessor() {
+        AsyncItemProcessor<FilesIndexEntry, ArchivoLegacy> asyncProcessor = 
+            new AsyncItemProcessor<FilesIndexEntry, ArchivoLegacy>(compositeProcessor());
         asyncProcessor.setTaskExecutor(batchTaskExecutor());
         return asyncProcessor;
     }
@@ -166,15 +209,133 @@ public class BatchReorgFullConfig {
         return asyncWriter;
     }
 
+    /**
+     * Step 0 (opcional): Pre-crea el árbol de particiones en destino
+     * Activado con batch.prepare-destination-tree=true
+     */
+    @Bean
+    Step prepareDestinationTreeStep() {
+        return new StepBuilder("prepare-destination-tree-step", jobRepository)
+                .tasklet(destinationTreePreparationTasklet)
+                .build();
+    }
+
     /**
      * Step 1: Reorganización (copiar archivos SIN borrar origen)
      * Step principal con chunk-oriented processing
      */
     @Bean
     Step reorganizeStep() {
-        return new StepBuilder("reorganizeStep", jobRepository)
-                .<DisorganizedFilesIndexDocument, Future<ArchivoLegacy>>chunk(batchProps.getChunkSize())
-                .reader(archivoIndexReader())
+        ItemReader<FilesIndexEntry> reader = batchProps.getClaim().isEnabled()
+                ? claimingArchivoIndexReader(null)
+                : archivoIndexReader();
+        return buildReorganizeStep("reorganizeStep", reader);
+    }
+
+    /**
+     * Reader con claim/lease: permite varias ejecuciones concurrentes sobre files_index
+     * Activado con batch.claim.enabled=true
+     */
+    @Bean
+    @StepScope
+    ClaimingFilesIndexItemReader claimingArchivoIndexReader(
+            @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        String owner = resolveInstanceId() + ":" + jobExecutionId;
+        return new ClaimingFilesIndexItemReader(
+                mongoTemplate,
+                mongoReader.entryCollection(),
+                leaseSweeper,
+                mongoProps.getFilesIndex(),
+                owner,
+                batchProps.getClaim().getBatchSize(),
+                Duration.ofSeconds(batchProps.getClaim().getLeaseSeconds()));
+    }
+
+    /**
+     * ID de la instancia (K8s pod name o hostname)
+     */
+    private static String resolveInstanceId() {
+        String podName = System.getenv("HOSTNAME");
+        if (podName != null && !podName.isEmpty()) {
+            return podName;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * Reader de una partición: cursor propio sobre su rango de _id
+     */
+    @Bean
+    @StepScope
+    FilesIndexEntryItemReader partitionedArchivoIndexReader(
+            @Value("#{stepExecutionContext['minId']}") String minId,
+            @Value("#{stepExecutionContext['maxId']}") String maxId) {
+        return mongoReader.createReader(minId, maxId);
+    }
+
+    /**
+     * Step 1 (worker): mismo pipeline que reorganizeStep sobre un rango de _id
+     */
+    @Bean
+    Step reorganizeWorkerStep() {
+        return buildReorganizeStep("reorganizeWorkerStep", partitionedArchivoIndexReader(null, null));
+    }
+
+    /**
+     * Executor para las particiones locales (un thread por partición)
+     */
+    @Bean(name = "partitionTaskExecutor")
+    TaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batchProps.getPartitionGridSize());
+        executor.setMaxPoolSize(batchProps.getPartitionGridSize());
+        executor.setThreadNamePrefix("batch-reorg-partition-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Step 1 (particionado): divide files_index en rangos de _id balanceados
+     * y ejecuta cada rango como un reorganizeWorkerStep en paralelo.
+     * Activado con batch.partition-mode=LOCAL
+     */
+    @Bean
+    Step reorganizePartitionedStep() {
+        return new StepBuilder("reorganizePartitionedStep", jobRepository)
+                .partitioner("reorganizeWorkerStep", filesIndexRangePartitioner)
+                .step(reorganizeWorkerStep())
+                .gridSize(batchProps.getPartitionGridSize())
+                .taskExecutor(partitionTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Step 1 (particionado remoto): mismas particiones que reorganizePartitionedStep,
+     * ejecutadas por workers a través de reorgPartitionRequests (RemotePartitioningConfig).
+     * Activado con batch.partition-mode=REMOTE
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "batch", name = "partition-mode", havingValue = "REMOTE")
+    Step reorganizeRemotePartitionedStep() {
+        return new StepBuilder("reorganizeRemotePartitionedStep", jobRepository)
+                .partitioner("reorganizeWorkerStep", filesIndexRangePartitioner)
+                .partitionHandler(reorgRemotePartitionHandler.getObject())
+                .build();
+    }
+
+    /**
+     * Construye el step chunk-oriented de reorganización con el reader indicado
+     */
+    private Step buildReorganizeStep(String stepName, ItemReader<FilesIndexEntry> reader) {
+        return new StepBuilder(stepName, jobRepository)
+                .<FilesIndexEntry, Future<ArchivoLegacy>>chunk(batchProps.getChunkSize())
+                .reader(reader)
                 .processor(asyncProcessor())
                 .writer(asyncWriter())
                 
@@ -221,16 +382,48 @@ public class BatchReorgFullConfig {
             .build();
     }    
 
+    /**
+     * Step 3 (opcional): poda bottom-up de los directorios de origen vaciados por el cleanup
+     */
+    @Bean
+    Step pruneEmptyDirectoriesStep() {
+        return new StepBuilder("prune-empty-directories-step", jobRepository)
+                .tasklet(emptyDirectoryPruneTasklet)
+                .build();
+    }
+
     /**
      * Job completo de reorganización.
      * IMPORTANTE: El nombre "BATCH-REORG-FULL" debe coincidir con el usado en JobOperator.start()
      */
     @Bean(name = "batchReorgFullJob")
     Job batchReorgFullJob() {
-        return new JobBuilder("BATCH-REORG-FULL", jobRepository)
-                .start(reorganizeStep())
-                .next(cleanupOriginStep())
-                .listener(auditListener)
-                .build();
+        JobBuilder jobBuilder = new JobBuilder("BATCH-REORG-FULL", jobRepository);
+        
+        Step reorganization = switch (batchProps.getPartitionMode()) {
+            case LOCAL -> reorganizePartitionedStep();
+            case REMOTE -> reorganizeRemotePartitionedStep();
+            default -> reorganizeStep();
+        };
+        
+        SimpleJobBuilder steps = batchProps.isPrepareDestinationTree()
+                ? jobBuilder.start(prepareDestinationTreeStep()).next(reorganization)
+                : jobBuilder.start(reorganization);
+        
+        steps.next(cleanupOriginStep());
+        
+        if (sftpProps.getCleanup().isPruneEmptyDirectories()) {
+            steps.next(pruneEmptyDirectoriesStep());
+        }
+        
+        steps.listener(auditListener);
+        steps.listener(jobStartStateListener);
+        
+        // Calentamiento de pools SFTP antes del primer step
+        if (batchProps.isSftpWarmUp()) {
+            steps.listener(sftpPoolWarmUpListener);
+        }
+        
+        return steps.build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.config;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties.ExecutionMode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 09:20:11
+ * File: BatchTaskExecutorConfig.java
+ */
+
+/**
+ * Executors usados por los writers del job.
+ *
+ * Se definen fuera de BatchReorgFullConfig porque los writers son componentes
+ * inyectados en esa configuración (evita dependencias circulares).
+ */
+@Configuration
+@RequiredArgsConstructor
+public class BatchTaskExecutorConfig {
+
+    private final BatchConfigProperties batchProps;
+
+    /**
+     * Executor para las transferencias por archivo dentro de cada chunk.
+     * PLATFORM: el número de threads es el límite de transferencias simultáneas.
+     * VIRTUAL: un hilo virtual por archivo; el límite real lo ponen los
+     * ConcurrencyLimiter de origen/destino.
+     */
+    @Bean(name = "sftpTransferExecutor")
+    TaskExecutor sftpTransferExecutor() {
+        return buildExecutor("batch-reorg-transfer-", batchProps.getTransferConcurrency());
+    }
+
+    /**
+     * Executor para los rangos de archivos grandes (transferencia por rangos).
+     * Separado de sftpTransferExecutor: la transferencia del archivo espera a sus rangos.
+     */
+    @Bean(name = "sftpRangeTransferExecutor")
+    TaskExecutor sftpRangeTransferExecutor() {
+        return buildExecutor("batch-reorg-range-", batchProps.getTransferConcurrency());
+    }
+
+    /**
+     * Executor para los borrados en origen del cleanup
+     */
+    @Bean(name = "cleanupDeleteExecutor")
+    TaskExecutor cleanupDeleteExecutor() {
+        return buildExecutor("batch-cleanup-delete-", batchProps.getCleanupConcurrency());
+    }
+
+    private TaskExecutor buildExecutor(String threadNamePrefix, int poolSize) {
+        if (batchProps.getExecutionMode() == ExecutionMode.VIRTUAL) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix + "vt-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
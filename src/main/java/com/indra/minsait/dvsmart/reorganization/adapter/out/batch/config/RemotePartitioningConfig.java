@@ -0,0 +1,168 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.config;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties.RemotePartitioning;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties.RemoteTransport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.integration.partition.BeanFactoryStepLocator;
+import org.springframework.batch.integration.partition.MessageChannelPartitionHandler;
+import org.springframework.batch.integration.partition.StepExecutionRequest;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.core.MessagingTemplate;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.Pollers;
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.jdbc.store.channel.PostgresChannelMessageStoreQueryProvider;
+import org.springframework.integration.store.MessageGroupQueue;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.sql.DataSource;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 12:40:18
+ * File: RemotePartitioningConfig.java
+ */
+
+/**
+ * Particionado remoto (manager/worker) del step de reorganización con spring-batch-integration.
+ *
+ * - Manager: el job envía un StepExecutionRequest por partición al canal
+ *   reorgPartitionRequests y sondea el JobRepository hasta que terminan.
+ * - Worker: cualquier instancia del servicio con worker-enabled=true consume
+ *   las peticiones y ejecuta reorganizeWorkerStep sobre su rango de _id.
+ *
+ * Transporte del canal (batch.remote-partitioning.transport):
+ * - LOCAL: ExecutorChannel en memoria (manager y workers en la misma JVM, sin broker)
+ * - JDBC:  cola persistente en la BD PostgreSQL de Spring Batch, compartida por todos los pods
+ *
+ * Solo se activa con batch.partition-mode=REMOTE: en NONE/LOCAL no se crean canal,
+ * message store ni worker (ninguna instancia sondea PostgreSQL).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "batch", name = "partition-mode", havingValue = "REMOTE")
+@RequiredArgsConstructor
+public class RemotePartitioningConfig {
+
+    private static final String REQUESTS_GROUP = "reorg-partition-requests";
+
+    private final BatchConfigProperties batchProps;
+    private final JobRepository jobRepository;
+
+    /**
+     * Canal por el que el manager envía las particiones a los workers
+     */
+    @Bean(name = "reorgPartitionRequests")
+    MessageChannel reorgPartitionRequests(ObjectProvider<DataSource> dataSource) {
+        RemotePartitioning remote = batchProps.getRemotePartitioning();
+
+        if (remote.getTransport() == RemoteTransport.JDBC) {
+            JdbcChannelMessageStore store = new JdbcChannelMessageStore(dataSource.getObject());
+            store.setChannelMessageStoreQueryProvider(new PostgresChannelMessageStoreQueryProvider());
+            store.addAllowedPatterns("org.springframework.batch.integration.partition.*");
+            store.afterPropertiesSet();
+            return new QueueChannel(new MessageGroupQueue(store, REQUESTS_GROUP));
+        }
+
+        // LOCAL: reparto en memoria, un thread por partición en curso
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(remote.getWorkerConcurrency());
+        executor.setMaxPoolSize(remote.getWorkerConcurrency());
+        executor.setThreadNamePrefix("batch-reorg-remote-local-");
+        executor.initialize();
+        return new ExecutorChannel(executor);
+    }
+
+    /**
+     * PartitionHandler del manager: envía peticiones y sondea el JobRepository
+     * (no necesita canal de respuesta)
+     */
+    @Bean(name = "reorgRemotePartitionHandler")
+    PartitionHandler reorgRemotePartitionHandler(MessageChannel reorgPartitionRequests) throws Exception {
+        RemotePartitioning remote = batchProps.getRemotePartitioning();
+
+        MessagingTemplate messagingTemplate = new MessagingTemplate();
+        messagingTemplate.setDefaultChannel(reorgPartitionRequests);
+
+        MessageChannelPartitionHandler handler = new MessageChannelPartitionHandler();
+        handler.setStepName("reorganizeWorkerStep");
+        handler.setGridSize(batchProps.getPartitionGridSize());
+        handler.setMessagingOperations(messagingTemplate);
+        handler.setJobRepository(jobRepository);
+        handler.setPollInterval(remote.getPollIntervalMs());
+        handler.setTimeout(remote.getTimeoutMs());
+        handler.afterPropertiesSet();
+        return handler;
+    }
+
+    @Bean
+    BeanFactoryStepLocator reorgWorkerStepLocator() {
+        return new BeanFactoryStepLocator();
+    }
+
+    /**
+     * Worker: ejecuta las particiones recibidas por el canal
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "batch.remote-partitioning", name = "worker-enabled", havingValue = "true", matchIfMissing = true)
+    IntegrationFlow reorgPartitionWorkerFlow(MessageChannel reorgPartitionRequests) {
+        StepExecutionRequestHandler requestHandler = new StepExecutionRequestHandler();
+        requestHandler.setStepLocator(reorgWorkerStepLocator());
+        requestHandler.setJobRepository(jobRepository);
+
+        RemotePartitioning remote = batchProps.getRemotePartitioning();
+        log.info("Remote partitioning worker enabled (transport: {}, concurrency: {})",
+            remote.getTransport(), remote.getWorkerConcurrency());
+
+        if (remote.getTransport() == RemoteTransport.JDBC) {
+            // Solo se sondea la cola si hay un thread libre (DiscardPolicy descarta el sondeo, no el mensaje)
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(remote.getWorkerConcurrency());
+            executor.setMaxPoolSize(remote.getWorkerConcurrency());
+            executor.setQueueCapacity(0);
+            executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+            executor.setThreadNamePrefix("batch-reorg-remote-worker-");
+            executor.initialize();
+
+            return IntegrationFlow.from(reorgPartitionRequests)
+                    .handle(StepExecutionRequest.class, (request, headers) -> {
+                        requestHandler.handle(request);
+                        return null;
+                    }, endpoint -> endpoint.poller(Pollers.fixedDelay(remote.getPollIntervalMs())
+                            .maxMessagesPerPoll(1)
+                            .taskExecutor(executor)))
+                    .get();
+        }
+
+        return IntegrationFlow.from(reorgPartitionRequests)
+                .handle(StepExecutionRequest.class, (request, headers) -> {
+                    requestHandler.handle(request);
+                    return null;
+                })
+                .get();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.listener;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader.FilesIndexLeaseSweeper;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.DestinationDirectoryCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 18-10-2026 at 09:14:26
+ * File: JobStartStateListener.java
+ */
+
+/**
+ * Restablece al inicio de cada ejecución el estado que sobrevive entre jobs.
+ * 
+ * - treeMaterialized: solo es válido para la ejecución cuyo paso de preparación
+ *   lo activó; una ejecución posterior sin ese paso vuelve a crear los padres
+ * - Leases expirados: los IN_PROGRESS de una ejecución en modo claim caída vuelven
+ *   a PENDING sea cual sea el reader de esta ejecución (los readers sin claim
+ *   solo leen PENDING y no los verían nunca)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobStartStateListener implements JobExecutionListener {
+
+    private final DestinationDirectoryCache directoryCache;
+    private final FilesIndexLeaseSweeper leaseSweeper;
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        directoryCache.setTreeMaterialized(false);
+        log.debug("Destination tree flag reset for execution {}", jobExecution.getId());
+        
+        leaseSweeper.releaseExpiredLeases();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.listener;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.PooledSftpSessionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 19:06:52
+ * File: SftpPoolWarmUpListener.java
+ */
+
+/**
+ * Calienta los pools SFTP antes de que el job lea nada (batch.sftp-warm-up=true).
+ *
+ * beforeJob abre en paralelo sftp.origin.pool.size y sftp.dest.pool.size
+ * sesiones, las valida y las deja en reposo: el primer chunk ya no paga los
+ * handshakes SSH en serie. Un fallo de calentamiento no detiene el job;
+ * las sesiones que falten se crearán bajo demanda como siempre.
+ */
+@Slf4j
+@Component
+public class SftpPoolWarmUpListener implements JobExecutionListener {
+
+    private final PooledSftpSessionFactory originSessionFactory;
+    private final PooledSftpSessionFactory destinationSessionFactory;
+    private final SftpConfigProperties sftpProps;
+
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public SftpPoolWarmUpListener(
+            @Qualifier("sftpOriginSessionFactory") PooledSftpSessionFactory originSessionFactory,
+            @Qualifier("sftpDestinationSessionFactory") PooledSftpSessionFactory destinationSessionFactory,
+            SftpConfigProperties sftpProps) {
+        this.originSessionFactory = originSessionFactory;
+        this.destinationSessionFactory = destinationSessionFactory;
+        this.sftpProps = sftpProps;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        long start = System.currentTimeMillis();
+        log.info("🔥 Warming up SFTP session pools (origin: {}, dest: {})",
+            sftpProps.getOrigin().getPool().getSize(), sftpProps.getDest().getPool().getSize());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Integer> origin = CompletableFuture.supplyAsync(
+                () -> originSessionFactory.warmUp(sftpProps.getOrigin().getPool().getSize()), executor);
+            CompletableFuture<Integer> destination = CompletableFuture.supplyAsync(
+                () -> destinationSessionFactory.warmUp(sftpProps.getDest().getPool().getSize()), executor);
+
+            int idleOrigin = origin.join();
+            int idleDestination = destination.join();
+            
+            log.info("✅ SFTP pools warmed up in {} ms (idle origin: {}, idle dest: {})",
+                System.currentTimeMillis() - start, idleOrigin, idleDestination);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ SFTP pool warm-up failed, sessions will be created on demand", e);
+        }
+    }
+}
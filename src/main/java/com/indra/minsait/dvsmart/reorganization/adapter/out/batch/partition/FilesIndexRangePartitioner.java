@@ -0,0 +1,97 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.partition;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.MongoConfigProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.batch.core.partition.Partitioner;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 11:35:52
+ * File: FilesIndexRangePartitioner.java
+ */
+
+/**
+ * Partitioner que divide files_index (solo PENDING) en rangos de _id balanceados.
+ *
+ * Usa $bucketAuto sobre _id para obtener gridSize rangos con un número similar
+ * de documentos. Cada partición recibe en su ExecutionContext:
+ * - minId: límite inferior inclusivo (ausente en la primera partición)
+ * - maxId: límite superior exclusivo (ausente en la última partición)
+ *
+ * Los extremos abiertos garantizan que ningún documento PENDING queda fuera
+ * aunque se inserte después de calcular los rangos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilesIndexRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID_KEY = "minId";
+    public static final String MAX_ID_KEY = "maxId";
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoConfigProperties properties;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("reorg_status").is("PENDING")),
+                Aggregation.project("_id"),
+                Aggregation.bucketAuto("_id", Math.max(1, gridSize)))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        List<Document> buckets = mongoTemplate
+                .aggregate(aggregation, properties.getFilesIndex(), Document.class)
+                .getMappedResults();
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+
+        if (buckets.isEmpty()) {
+            // Sin pendientes: una única partición sin límites
+            partitions.put("partition0", new ExecutionContext());
+            return partitions;
+        }
+
+        for (int i = 0; i < buckets.size(); i++) {
+            Document bounds = buckets.get(i).get("_id", Document.class);
+            ExecutionContext context = new ExecutionContext();
+
+            if (i > 0) {
+                context.putString(MIN_ID_KEY, bounds.get("min").toString());
+            }
+            if (i < buckets.size() - 1) {
+                context.putString(MAX_ID_KEY, bounds.get("max").toString());
+            }
+            context.putLong("expectedCount", buckets.get(i).get("count", Number.class).longValue());
+
+            partitions.put("partition" + i, context);
+        }
+
+        log.info("files_index split into {} _id ranges (requested grid size: {})", partitions.size(), gridSize);
+        return partitions;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.codec.FilesIndexEntryCodec;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.FilesIndexEntry;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamException;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 13:08:44
+ * File: ClaimingFilesIndexItemReader.java
+ */
+
+/**
+ * Reader que reclama (claim) lotes de files_index antes de leerlos.
+ *
+ * Estrategia por lote:
+ * 1. Busca hasta claimBatchSize _id reclamables (PENDING o IN_PROGRESS con lease expirado)
+ * 2. updateMulti atómico por documento: solo pasa a IN_PROGRESS si sigue siendo reclamable,
+ *    registrando owner, claimToken y lease
+ * 3. Lee únicamente los documentos con su claimToken (proyección + codec a FilesIndexEntry)
+ *
+ * Si otra ejecución reclama antes los mismos documentos, el paso 2 no los
+ * modifica y no se leen: varias ejecuciones pueden vaciar files_index en
+ * paralelo sin transferencias duplicadas.
+ *
+ * El writer renueva el lease mientras transfiere cada chunk y limpia
+ * owner/lease al marcar COMPLETED/FAILED, solo si el claim sigue siendo suyo.
+ */
+@Slf4j
+public class ClaimingFilesIndexItemReader implements ItemStreamReader<FilesIndexEntry> {
+
+    private static final int MAX_CLAIM_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoCollection<FilesIndexEntry> entries;
+    private final FilesIndexLeaseSweeper leaseSweeper;
+    private final String collection;
+    private final String owner;
+    private final int claimBatchSize;
+    private final Duration leaseDuration;
+
+    private final Deque<FilesIndexEntry> claimed = new ArrayDeque<>();
+    private boolean exhausted = false;
+
+    public ClaimingFilesIndexItemReader(MongoTemplate mongoTemplate,
+                                        MongoCollection<FilesIndexEntry> entries,
+                                        FilesIndexLeaseSweeper leaseSweeper,
+                                        String collection,
+                                        String owner,
+                                        int claimBatchSize,
+                                        Duration leaseDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.entries = entries;
+        this.leaseSweeper = leaseSweeper;
+        this.collection = collection;
+        this.owner = owner;
+        this.claimBatchSize = claimBatchSize;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        log.info("Claim reader opened (owner: {}, batch: {}, lease: {})", owner, claimBatchSize, leaseDuration);
+        leaseSweeper.releaseExpiredLeases();
+        claimed.clear();
+        exhausted = false;
+    }
+
+    @Override
+    public synchronized FilesIndexEntry read() {
+        if (claimed.isEmpty() && !exhausted) {
+            claimed.addAll(claimBatch());
+            exhausted = claimed.isEmpty();
+        }
+        return claimed.poll();
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        // Devolver a PENDING lo reclamado y no leído
+        List<String> unread = new ArrayList<>();
+        for (FilesIndexEntry entry : claimed) {
+            unread.add(entry.id());
+        }
+        long released = leaseSweeper.release(unread, owner);
+        if (released > 0) {
+            log.info("Released {} claimed but unread documents (owner: {})", released, owner);
+        }
+        claimed.clear();
+    }
+
+    private List<FilesIndexEntry> claimBatch() {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            Instant now = Instant.now();
+
+            Query candidatesQuery = new Query(claimable(now))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(claimBatchSize);
+            candidatesQuery.fields().include("_id");
+
+            List<Object> ids = mongoTemplate.find(candidatesQuery, Document.class, collection).stream()
+                    .map(doc -> doc.get("_id"))
+                    .toList();
+
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+
+            String claimToken = UUID.randomUUID().toString();
+
+            Update claim = new Update()
+                    .set("reorg_status", "IN_PROGRESS")
+                    .set("reorg_owner", owner)
+                    .set("reorg_claimToken", claimToken)
+                    .set("reorg_leaseExpiresAt", now.plus(leaseDuration));
+
+            long claimedCount = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids).andOperator(claimable(now))),
+                    claim, collection).getModifiedCount();
+
+            if (claimedCount > 0) {
+                log.debug("Claimed {} of {} candidates (token: {})", claimedCount, ids.size(), claimToken);
+                return entries.find(Filters.eq("reorg_claimToken", claimToken))
+                        .projection(FilesIndexEntryCodec.PROJECTION)
+                        .sort(Sorts.ascending("_id"))
+                        .into(new ArrayList<>(claimBatchSize));
+            }
+
+            // Otra ejecución reclamó los mismos candidatos: reintentar con los siguientes
+            log.debug("Claim contention, retrying (attempt {})", attempt + 1);
+        }
+        return List.of();
+    }
+
+    private Criteria claimable(Instant now) {
+        return new Criteria().orOperator(
+                Criteria.where("reorg_status").is("PENDING"),
+                Criteria.where("reorg_status").is("IN_PROGRESS").and("reorg_leaseExpiresAt").lt(now));
+    }
+}
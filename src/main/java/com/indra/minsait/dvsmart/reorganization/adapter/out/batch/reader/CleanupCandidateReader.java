@@ -15,15 +15,18 @@ package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader;
 
 import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.DisorganizedFilesIndexDocument;
 import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupCandidate;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.batch.infrastructure.item.ItemReader;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamException;
+import org.springframework.batch.infrastructure.item.support.AbstractItemStreamItemReader;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -43,46 +46,93 @@ import java.util.List;
  * - reorg_completedAt < 90 días (seguridad)
  * 
  * Usa índice: idx_cleanup_candidates
+ * 
+ * Paginación keyset: páginas de PAGE_SIZE documentos ordenadas por _id, cada una
+ * con su propia query (_id > último leído). No queda ningún cursor abierto entre
+ * páginas, así que un cleanup lento (p.ej. cleanupDeleteRateLimiter bajo) no
+ * puede agotar el timeout de cursor del servidor. El último _id confirmado se
+ * guarda en el ExecutionContext y al reiniciar la lectura continúa desde él.
+ * Cada open() sin estado empieza de cero.
  * */
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class CleanupCandidateReader implements ItemReader<CleanupCandidate> {
+public class CleanupCandidateReader extends AbstractItemStreamItemReader<CleanupCandidate> {
+
+    private static final String LAST_ID_KEY = "lastId";
+    private static final int PAGE_SIZE = 500;
 
     private final MongoTemplate mongoTemplate;
     
-    private Iterator<CleanupCandidate> candidateIterator;
-    private boolean initialized = false;
+    private Instant cutoffDate;
+    private Iterator<DisorganizedFilesIndexDocument> page = Collections.emptyIterator();
+    private boolean exhausted;
+    private String lastId;
+    private long readCount;
+
+    public CleanupCandidateReader(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        setName("cleanupCandidateReader");
+    }
 
     @Override
-    public CleanupCandidate read() {
-        if (!initialized) {
-            initializeCandidates();
-            initialized = true;
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        super.open(executionContext);
+        
+        String lastIdKey = getExecutionContextKey(LAST_ID_KEY);
+        lastId = executionContext.containsKey(lastIdKey) ? executionContext.getString(lastIdKey) : null;
+        readCount = 0;
+        page = Collections.emptyIterator();
+        exhausted = false;
+        
+        // Fecha límite: solo archivos reorganizados en los últimos 90 días
+        cutoffDate = Instant.now().minus(90, ChronoUnit.DAYS);
+        
+        log.info("════════════════════════════════════════════════════════");
+        log.info("🗑️ CLEANUP: Reading cleanup candidates (pages of {})", PAGE_SIZE);
+        if (lastId != null) {
+            log.info("Resuming cleanup after _id {}", lastId);
         }
+        log.info("Cutoff date: {} (files older than 90 days excluded)", cutoffDate);
+        log.info("════════════════════════════════════════════════════════");
+    }
 
-        return candidateIterator.hasNext() ? candidateIterator.next() : null;
+    @Override
+    public CleanupCandidate read() {
+        if (!page.hasNext() && !exhausted) {
+            List<DisorganizedFilesIndexDocument> next = fetchPage();
+            exhausted = next.size() < PAGE_SIZE;
+            page = next.iterator();
+        }
+        
+        if (!page.hasNext()) {
+            return null;
+        }
+        
+        DisorganizedFilesIndexDocument doc = page.next();
+        lastId = doc.getId();
+        readCount++;
+        return toCleanupCandidate(doc);
     }
 
     /**
-     * Inicializa la lista de candidatos consultando MongoDB
+     * Siguiente página tras el último _id leído (query independiente, sin cursor abierto)
      */
-    private void initializeCandidates() {
-        log.info("════════════════════════════════════════════════════════");
-        log.info("🗑️ CLEANUP: Initializing cleanup candidates");
-        
-        // Fecha límite: solo archivos reorganizados en los últimos 90 días
-        Instant cutoffDate = Instant.now().minus(90, ChronoUnit.DAYS);
-        
+    private List<DisorganizedFilesIndexDocument> fetchPage() {
         // Query optimizado con índice idx_cleanup_candidates
-        Query query = new Query(
-            Criteria.where("reorg_status").is("COMPLETED")
+        Criteria criteria = Criteria.where("reorg_status").is("COMPLETED")
                     .and("deleted_from_source").is(false)
                     //.and("reorg_completedAt").exists(true)
                     .and("reorg_completedAt").gte(cutoffDate)
-                    .and("reorg_destinationPath").exists(true).ne(null)
-        );
+                    .and("reorg_destinationPath").exists(true).ne(null);
+        
+        if (lastId != null) {
+            criteria = criteria.and("_id").gt(lastId);
+        }
+        
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.ASC, "_id"))
+            .limit(PAGE_SIZE);
         
         // Proyección: solo campos necesarios
         query.fields()
@@ -93,16 +143,24 @@ public class CleanupCandidateReader implements ItemReader<CleanupCandidate> {
              .include("fileSize")
              .include("lastModificationDate");
         
-        List<DisorganizedFilesIndexDocument> documents = 
-            mongoTemplate.find(query, DisorganizedFilesIndexDocument.class);
-        
-        log.info("Found {} files to cleanup from origin", documents.size());
-        log.info("Cutoff date: {} (files older than 90 days excluded)", cutoffDate);
-        log.info("════════════════════════════════════════════════════════");
-        
-        candidateIterator = documents.stream()
-            .map(this::toCleanupCandidate)
-            .iterator();
+        // Con la clase de entidad para que el _id String se mapee a ObjectId
+        return mongoTemplate.find(query, DisorganizedFilesIndexDocument.class);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (lastId != null) {
+            executionContext.putString(getExecutionContextKey(LAST_ID_KEY), lastId);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        super.close();
+        log.info("Cleanup candidates read: {}", readCount);
+        page = Collections.emptyIterator();
+        lastId = null;
     }
 
     /**
@@ -0,0 +1,109 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.codec.FilesIndexEntryCodec;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.FilesIndexEntry;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.conversions.Bson;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamException;
+import org.springframework.batch.infrastructure.item.support.AbstractItemStreamItemReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 14:18:50
+ * File: FilesIndexEntryItemReader.java
+ */
+
+/**
+ * Reader en streaming de files_index que decodifica directamente a FilesIndexEntry.
+ *
+ * - Proyección: el servidor solo envía los campos del pipeline de copia
+ * - Codec: BSON → record inmutable, sin Document ni MappingMongoConverter
+ * - Keyset por _id: al reiniciar continúa desde el último _id guardado en el
+ *   ExecutionContext (sin skip)
+ */
+@Slf4j
+public class FilesIndexEntryItemReader extends AbstractItemStreamItemReader<FilesIndexEntry> {
+
+    private static final String LAST_ID_KEY = "lastId";
+
+    private final MongoCollection<FilesIndexEntry> collection;
+    private final Bson filter;
+    private final int batchSize;
+
+    private MongoCursor<FilesIndexEntry> cursor;
+    private String lastId;
+
+    public FilesIndexEntryItemReader(MongoCollection<FilesIndexEntry> collection, Bson filter, int batchSize) {
+        this.collection = collection;
+        this.filter = filter;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        super.open(executionContext);
+
+        String lastIdKey = getExecutionContextKey(LAST_ID_KEY);
+        lastId = executionContext.containsKey(lastIdKey) ? executionContext.getString(lastIdKey) : null;
+
+        List<Bson> filters = new ArrayList<>(2);
+        filters.add(filter);
+        if (lastId != null) {
+            filters.add(Filters.gt("_id", FilesIndexEntryCodec.toIdValue(lastId)));
+            log.info("Resuming {} after _id {}", getName(), lastId);
+        }
+
+        cursor = collection.find(Filters.and(filters))
+                .projection(FilesIndexEntryCodec.PROJECTION)
+                .sort(Sorts.ascending("_id"))
+                .batchSize(batchSize)
+                .iterator();
+    }
+
+    @Override
+    public FilesIndexEntry read() {
+        if (cursor == null || !cursor.hasNext()) {
+            return null;
+        }
+        FilesIndexEntry entry = cursor.next();
+        lastId = entry.id();
+        return entry;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (lastId != null) {
+            executionContext.putString(getExecutionContextKey(LAST_ID_KEY), lastId);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        super.close();
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.DisorganizedFilesIndexDocument;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.MongoConfigProperties;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 13:31:09
+ * File: FilesIndexLeaseSweeper.java
+ */
+
+/**
+ * Libera reclamaciones (claims) de files_index.
+ *
+ * - releaseExpiredLeases: devuelve a PENDING los documentos IN_PROGRESS cuyo
+ *   lease expiró (instancia caída o job abortado)
+ * - release: devuelve a PENDING documentos reclamados que no llegaron a procesarse
+ * - renew: prolonga el lease de lotes reclamados que siguen en proceso
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilesIndexLeaseSweeper {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoConfigProperties properties;
+
+    public long releaseExpiredLeases() {
+        Query query = new Query(
+            Criteria.where("reorg_status").is("IN_PROGRESS")
+                    .and("reorg_leaseExpiresAt").lt(Instant.now())
+        );
+
+        UpdateResult result = mongoTemplate.updateMulti(query, releaseUpdate(), properties.getFilesIndex());
+
+        if (result.getModifiedCount() > 0) {
+            log.warn("Released {} expired leases in {}", result.getModifiedCount(), properties.getFilesIndex());
+        }
+        return result.getModifiedCount();
+    }
+
+    public long release(Collection<String> ids, String owner) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Query query = new Query(
+            Criteria.where("_id").in(ids)
+                    .and("reorg_status").is("IN_PROGRESS")
+                    .and("reorg_owner").is(owner)
+        );
+
+        // Con la clase de entidad para que los _id String se mapeen a ObjectId
+        return mongoTemplate.updateMulti(query, releaseUpdate(), 
+            DisorganizedFilesIndexDocument.class, properties.getFilesIndex()).getModifiedCount();
+    }
+
+    /**
+     * Prolonga el lease de los lotes reclamados (por claimToken) que siguen
+     * siendo del owner. Incluye los documentos del lote aún no leídos.
+     */
+    public long renew(Collection<String> claimTokens, String owner, Duration leaseDuration) {
+        if (claimTokens.isEmpty()) {
+            return 0;
+        }
+
+        Query query = new Query(
+            Criteria.where("reorg_claimToken").in(claimTokens)
+                    .and("reorg_status").is("IN_PROGRESS")
+                    .and("reorg_owner").is(owner)
+        );
+
+        return mongoTemplate.updateMulti(query,
+            new Update().set("reorg_leaseExpiresAt", Instant.now().plus(leaseDuration)),
+            properties.getFilesIndex()).getModifiedCount();
+    }
+
+    private Update releaseUpdate() {
+        return new Update()
+                .set("reorg_status", "PENDING")
+                .unset("reorg_owner")
+                .unset("reorg_claimToken")
+                .unset("reorg_leaseExpiresAt");
+    }
+}
@@ -13,18 +13,18 @@
  */
 package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader;
 
-import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.DisorganizedFilesIndexDocument;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.codec.FilesIndexEntryCodec;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.FilesIndexEntry;
 import com.indra.minsait.dvsmart.reorganization.infrastructure.config.MongoConfigProperties;
 
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
 import lombok.RequiredArgsConstructor;
-import org.bson.Document;
-import org.springframework.batch.infrastructure.item.data.MongoCursorItemReader;
-import org.springframework.batch.infrastructure.item.data.builder.MongoCursorItemReaderBuilder;
-import org.springframework.data.domain.Sort;
+import org.bson.conversions.Bson;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -35,6 +35,9 @@ import java.util.Map;
 /**
  * Reader que utiliza cursor streaming de MongoDB para leer millones de archivos
  * sin cargar todo en memoria ni usar skip() que es lento.
+ * 
+ * Solo proyecta los campos que usa la copia y los decodifica directamente a
+ * FilesIndexEntry (record inmutable) con un codec BSON propio.
  */
 @Component
 @RequiredArgsConstructor
@@ -45,26 +48,48 @@ public class MongoIndexedDisorganizedFileItemReader {
     private final MongoConfigProperties properties; 
 
     /**
-     * Crea un MongoCursorItemReader para streaming eficiente
+     * Crea un reader en streaming de los archivos PENDING
      * 
-     * @return MongoCursorItemReader configurado
+     * @return FilesIndexEntryItemReader (proyección + codec + keyset por _id)
      */
-    public MongoCursorItemReader<DisorganizedFilesIndexDocument> createReader() {
-        // ✅ FILTRAR: Solo archivos pendientes de reorganizar
-        Document query = new Document("reorg_status", "PENDING");
+    public FilesIndexEntryItemReader createReader() {
+        FilesIndexEntryItemReader reader = new FilesIndexEntryItemReader(
+                entryCollection(), Filters.eq("reorg_status", "PENDING"), 100);
+        reader.setName("archivoIndexCursorReader");
+        return reader;
+    }
+
+    /**
+     * Crea un reader limitado a un rango de _id (una partición).
+     * 
+     * @param minId límite inferior inclusivo (null = sin límite)
+     * @param maxId límite superior exclusivo (null = sin límite)
+     * @return FilesIndexEntryItemReader con su propio cursor y estado de reinicio
+     */
+    public FilesIndexEntryItemReader createReader(String minId, String maxId) {
+        List<Bson> filters = new ArrayList<>(3);
+        filters.add(Filters.eq("reorg_status", "PENDING"));
         
-        Map<String, Sort.Direction> sorts = new HashMap<>();
-        sorts.put("_id", Sort.Direction.ASC);
+        if (minId != null) {
+            filters.add(Filters.gte("_id", FilesIndexEntryCodec.toIdValue(minId)));
+        }
+        if (maxId != null) {
+            filters.add(Filters.lt("_id", FilesIndexEntryCodec.toIdValue(maxId)));
+        }
         
-        return new MongoCursorItemReaderBuilder<DisorganizedFilesIndexDocument>()
-                .name("archivoIndexCursorReader")
-                .template(mongoTemplate)
-                .jsonQuery(query.toJson())
-                .targetType(DisorganizedFilesIndexDocument.class)
-                .sorts(sorts)
-                .collection(properties.getFilesIndex())
-                .batchSize(100)
-                .saveState(true)
-                .build();
+        FilesIndexEntryItemReader reader = new FilesIndexEntryItemReader(
+                entryCollection(), Filters.and(filters), 100);
+        reader.setName("archivoIndexPartitionReader");
+        return reader;
+    }
+
+    /**
+     * Colección files_index tipada a FilesIndexEntry (decodificación con FilesIndexEntryCodec)
+     */
+    public MongoCollection<FilesIndexEntry> entryCollection() {
+        MongoCollection<?> collection = mongoTemplate.getCollection(properties.getFilesIndex());
+        return collection
+                .withCodecRegistry(FilesIndexEntryCodec.registry(collection.getCodecRegistry()))
+                .withDocumentClass(FilesIndexEntry.class);
     }
-}
\ No newline at end of file
+}
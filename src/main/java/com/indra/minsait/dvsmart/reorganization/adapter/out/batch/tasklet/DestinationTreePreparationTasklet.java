@@ -0,0 +1,116 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.tasklet;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.DestinationDirectoryCache;
+import com.indra.minsait.dvsmart.reorganization.application.port.out.DisorganizedFilesIndexRepository;
+import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpDestinationRepository;
+import com.indra.minsait.dvsmart.reorganization.domain.service.FileReorganizationService;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 10:48:05
+ * File: DestinationTreePreparationTasklet.java
+ */
+
+/**
+ * Tasklet que pre-crea el árbol de particiones en el SFTP destino antes de copiar.
+ *
+ * Estrategia:
+ * 1. Agregación MongoDB: prefijos distintos de idUnico de los archivos PENDING
+ * 2. Cada prefijo → directorio de partición (FileReorganizationService)
+ * 3. Creación en paralelo (una sesión del pool por thread)
+ * 4. Si no hubo fallos, marca el árbol como materializado y la copia
+ *    deja de comprobar directorios por archivo
+ *
+ * Los fallos no detienen el job: la copia vuelve a crear los directorios que falten.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DestinationTreePreparationTasklet implements Tasklet {
+
+    private final DisorganizedFilesIndexRepository filesIndexRepository;
+    private final SftpDestinationRepository destRepo;
+    private final DestinationDirectoryCache directoryCache;
+    private final FileReorganizationService reorganizationService;
+    private final SftpConfigProperties sftpProps;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        log.info("════════════════════════════════════════════════════════");
+        log.info("📁 PREPARE: Creating destination partition tree");
+
+        directoryCache.setTreeMaterialized(false);
+
+        int parallelism = Math.max(1, sftpProps.getDest().getPool().getSize());
+        String baseDir = sftpProps.getDest().getBaseDir();
+        AtomicLong created = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long startTime = System.currentTimeMillis();
+
+        // Cola acotada + CallerRuns: no se acumulan millones de tareas en memoria
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(parallelism * 4),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try (Stream<String> prefixes =
+                filesIndexRepository.streamPendingIdUnicoPrefixes(reorganizationService.partitionPrefixLength())) {
+
+            prefixes.forEach(prefix -> executor.execute(() -> {
+                String directory = reorganizationService.calculatePartitionDirectory(prefix, baseDir);
+                try {
+                    destRepo.createDirectory(directory);
+                    created.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("Failed to prepare directory: {}", directory, e);
+                }
+            }));
+
+        } finally {
+            executor.shutdown();
+        }
+
+        // Si no terminan a tiempo, el árbol puede estar incompleto: no se marca materializado
+        boolean completed = executor.awaitTermination(1, TimeUnit.HOURS);
+        if (!completed) {
+            executor.shutdownNow();
+            log.warn("⚠️ Partition tree preparation timed out, directories will be created on demand");
+        }
+
+        directoryCache.setTreeMaterialized(completed && failed.get() == 0);
+        contribution.incrementWriteCount(created.get());
+
+        log.info("Partition directories ready: {}, failed: {} ({}ms)",
+            created.get(), failed.get(), System.currentTimeMillis() - startTime);
+        log.info("════════════════════════════════════════════════════════");
+
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.tasklet;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete.TouchedDirectoryTrie;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete.TouchedDirectoryTrie.Directory;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.ConcurrencyLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.SshjConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import net.schmizz.sshj.connection.ConnectionException;
+import net.schmizz.sshj.sftp.SFTPClient;
+import net.schmizz.sshj.transport.TransportException;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 23:05:31
+ * File: EmptyDirectoryPruneTasklet.java
+ */
+
+/**
+ * Tasklet que elimina del SFTP origen los directorios vaciados por el cleanup
+ * (sftp.cleanup.prune-empty-directories=true).
+ *
+ * Estrategia:
+ * 1. Toma los directorios tocados por el cleanup (TouchedDirectoryTrie),
+ *    agrupados por profundidad
+ * 2. Del nivel más profundo al más superficial: rmdir en paralelo de los
+ *    directorios cuyos subdirectorios registrados ya se eliminaron
+ *    (cleanupDeleteExecutor, limitado por originConcurrencyLimiter)
+ * 3. rmdir falla si el directorio no está vacío: ese directorio y sus
+ *    ancestros se conservan sin listar nada
+ *
+ * Nunca se elimina sftp.origin.base-dir ni nada por encima.
+ * 
+ * Una interrupción (parada del job) cancela los rmdir pendientes y se propaga
+ * como InterruptedException.
+ */
+@Slf4j
+@Component
+public class EmptyDirectoryPruneTasklet implements Tasklet {
+
+    private final TouchedDirectoryTrie touchedDirectories;
+    private final SshjConnectionPool connectionPool;
+    private final TaskExecutor deleteExecutor;
+    private final ConcurrencyLimiter originLimiter;
+    private final RateLimiter deleteRateLimiter;
+
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public EmptyDirectoryPruneTasklet(TouchedDirectoryTrie touchedDirectories,
+                                      @Qualifier("cleanupSshjConnectionPool") SshjConnectionPool connectionPool,
+                                      @Qualifier("cleanupDeleteExecutor") TaskExecutor deleteExecutor,
+                                      @Qualifier("originConcurrencyLimiter") ConcurrencyLimiter originLimiter,
+                                      @Qualifier("cleanupDeleteRateLimiter") RateLimiter deleteRateLimiter) {
+        this.touchedDirectories = touchedDirectories;
+        this.connectionPool = connectionPool;
+        this.deleteExecutor = deleteExecutor;
+        this.originLimiter = originLimiter;
+        this.deleteRateLimiter = deleteRateLimiter;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        log.info("════════════════════════════════════════════════════════");
+        log.info("🧹 PRUNE: Removing emptied origin directories ({} candidates)", touchedDirectories.size());
+
+        List<List<Directory>> levels = touchedDirectories.drainLevels();
+        AtomicLong removed = new AtomicLong();
+        AtomicLong kept = new AtomicLong();
+        long startTime = System.currentTimeMillis();
+
+        try (SshjConnectionPool.Lease lease = connectionPool.borrow()) {
+            SFTPClient sftpClient = lease.sftp();
+            AtomicBoolean connectionBroken = new AtomicBoolean(false);
+            AtomicBoolean interrupted = new AtomicBoolean(false);
+
+            // Niveles en orden: un directorio solo se intenta tras procesar todos sus hijos
+            for (List<Directory> level : levels) {
+                List<CompletableFuture<Void>> futures = new ArrayList<>(level.size());
+
+                for (Directory directory : level) {
+                    if (directory.hasPendingChildren()) {
+                        kept.incrementAndGet();  // Algún subdirectorio sigue existiendo
+                        continue;
+                    }
+
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        if (interrupted.get()) {
+                            kept.incrementAndGet();
+                            return;
+                        }
+                        try {
+                            deleteRateLimiter.acquireOperation();
+                            originLimiter.acquire();
+                            try {
+                                sftpClient.rmdir(directory.getPath());
+                            } finally {
+                                originLimiter.release();
+                            }
+                            directory.markRemoved();
+                            removed.incrementAndGet();
+                            log.debug("Removed empty directory: {}", directory.getPath());
+                        } catch (InterruptedException e) {
+                            // Restaurar el flag y no lanzar más rmdir
+                            Thread.currentThread().interrupt();
+                            interrupted.set(true);
+                            kept.incrementAndGet();
+                        } catch (Exception e) {
+                            // No vacío (o sin permisos): se conserva
+                            if (e instanceof TransportException || e instanceof ConnectionException) {
+                                connectionBroken.set(true);
+                            }
+                            kept.incrementAndGet();
+                            log.trace("Directory kept: {} ({})", directory.getPath(), e.getMessage());
+                        }
+                    }, deleteExecutor));
+                }
+
+                CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+                try {
+                    all.get();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                } catch (ExecutionException e) {
+                    // Las tareas no lanzan: cada fallo cuenta como directorio conservado
+                }
+
+                if (interrupted.get()) {
+                    // Los rmdir en curso terminan antes de devolver la conexión al pool
+                    all.join();
+                    throw new InterruptedException("Prune interrupted, remaining directories kept");
+                }
+
+                if (connectionBroken.get()) {
+                    lease.invalidate();
+                    log.warn("⚠️ SSH connection lost while pruning, remaining directories kept");
+                    break;
+                }
+            }
+        }
+
+        contribution.incrementWriteCount(removed.get());
+
+        log.info("Empty directories removed: {}, kept: {} ({}ms)",
+            removed.get(), kept.get(), System.currentTimeMillis() - startTime);
+        log.info("════════════════════════════════════════════════════════");
+
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -14,17 +14,18 @@
 package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.writter;
 
 import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.DisorganizedFilesIndexDocument;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete.OriginDeleteStrategy;
+import com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete.TouchedDirectoryTrie;
 import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupResult;
 import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.DeleteStrategy;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.SshjConnectionPool;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.schmizz.sshj.SSHClient;
-import net.schmizz.sshj.sftp.SFTPClient;
-import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
 
 import org.springframework.batch.infrastructure.item.Chunk;
 import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -32,12 +33,7 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -46,12 +42,19 @@ import java.util.concurrent.TimeUnit;
  */
 
 /**
- * Writer que borra archivos del SFTP origen usando SSHJ con pipelining.
+ * Writer que borra archivos del SFTP origen usando SSHJ.
  * 
  * Estrategia:
- * 1. Conectar una sola vez a SFTP origen por chunk
- * 2. Ejecutar borrados en paralelo (10 threads)
+ * 1. Tomar una conexión SSHJ persistente del pool (cleanupSshjConnectionPool):
+ *    sin connect/auth por chunk
+ * 2. Borrar con la OriginDeleteStrategy configurada (sftp.cleanup.delete-strategy):
+ *    - PARALLEL_RM: rm en paralelo (cleanupDeleteExecutor: batch.cleanup-concurrency
+ *      threads o hilos virtuales según batch.execution-mode)
+ *    - PIPELINED: REMOVE asíncronos con ventana sobre un único canal
+ *    - EXEC: un único xargs -0 rm -f remoto por chunk con resultado por archivo
  * 3. Actualizar MongoDB en bulk
+ * 4. Con sftp.cleanup.prune-empty-directories, registrar los directorios
+ *    tocados para podarlos al final (EmptyDirectoryPruneTasklet)
  * 
  * Performance esperado:
  * - 500 archivos/chunk
@@ -61,11 +64,32 @@ import java.util.concurrent.TimeUnit;
  * */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OriginFileDeleteWriter implements ItemWriter<CleanupResult> {
 
-    private final SftpConfigProperties sftpConfigProps;
+    private final SshjConnectionPool connectionPool;
     private final MongoTemplate mongoTemplate;
+    private final OriginDeleteStrategy deleteStrategy;
+    private final TouchedDirectoryTrie touchedDirectories;
+    private final boolean pruneEmptyDirectories;
+
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public OriginFileDeleteWriter(@Qualifier("cleanupSshjConnectionPool") SshjConnectionPool connectionPool,
+                                  MongoTemplate mongoTemplate,
+                                  List<OriginDeleteStrategy> deleteStrategies,
+                                  TouchedDirectoryTrie touchedDirectories,
+                                  SftpConfigProperties sftpConfigProps) {
+        this.connectionPool = connectionPool;
+        this.mongoTemplate = mongoTemplate;
+        this.touchedDirectories = touchedDirectories;
+        this.pruneEmptyDirectories = sftpConfigProps.getCleanup().isPruneEmptyDirectories();
+        
+        DeleteStrategy configured = sftpConfigProps.getCleanup().getDeleteStrategy();
+        this.deleteStrategy = deleteStrategies.stream()
+            .filter(strategy -> strategy.type() == configured)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No delete strategy available for " + configured));
+        log.info("Origin delete strategy: {}", configured);
+    }
 
     @Override
     public void write(Chunk<? extends CleanupResult> chunk) throws Exception {
@@ -74,62 +98,30 @@ public class OriginFileDeleteWriter implements ItemWriter<CleanupResult> {
             return;
         }
         
-        log.info("🗑️ Deleting {} files from origin using SSHJ pipelined", chunk.size());
+        log.info("🗑️ Deleting {} files from origin using SSHJ ({})", chunk.size(), deleteStrategy.type());
         
-        SSHClient sshClient = new SSHClient();
+        // 1. Conexión persistente del pool (validada al prestarla)
+        try (SshjConnectionPool.Lease lease = connectionPool.borrow()) {
+            // 2. Borrar (cada CleanupResult queda marcado como deleted o con su error)
+            deleteStrategy.delete(lease, chunk.getItems());
+        }
         
-        try {
-            // 1. Conectar SSH (una sola vez por chunk)
-            sshClient.addHostKeyVerifier(new PromiscuousVerifier());
-            sshClient.connect(sftpConfigProps.getOrigin().getHost(), sftpConfigProps.getOrigin().getPort());
-            sshClient.authPassword(sftpConfigProps.getOrigin().getUser(), sftpConfigProps.getOrigin().getPassword());
-            
-            // 2. Abrir sesión SFTP
-            SFTPClient sftpClient = sshClient.newSFTPClient();
-            
-            // 3. Ejecutar deletes en paralelo (pipelined)
-            ExecutorService executor = Executors.newFixedThreadPool(10);
-            List<CompletableFuture<Void>> futures = new ArrayList<>();
-            
-            for (CleanupResult result : chunk) {
-                CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                    try {
-                        // Borrar archivo
-                        sftpClient.rm(result.getSourcePath());
-                        result.setDeleted(true);
-                        log.debug("✅ Deleted: {}", result.getSourcePath());
-                        
-                    } catch (Exception e) {
-                        // No fallar el chunk completo, marcar como fallido
-                        result.setDeleted(false);
-                        result.setErrorMessage(e.getMessage());
-                        log.error("❌ Failed to delete: {}", result.getSourcePath(), e);
-                    }
-                }, executor);
-                
-                futures.add(future);
-            }
-            
-            // 4. Esperar a que todos completen
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
-            
-            executor.shutdown();
-            executor.awaitTermination(30, TimeUnit.SECONDS);
-            
-            // 5. Actualizar MongoDB (bulk)
-            updateMongoDBBatch(chunk);
-            
-            // 6. Log resumen
-            long successCount = chunk.getItems().stream().filter(CleanupResult::isDeleted).count();
-            long failedCount = chunk.size() - successCount;
-            
-            log.info("✅ Cleanup chunk completed: {} deleted, {} failed", successCount, failedCount);
-            
-        } finally {
-            if (sshClient.isConnected()) {
-                sshClient.close();
-            }
+        // 3. Actualizar MongoDB (bulk)
+        updateMongoDBBatch(chunk);
+        
+        // 4. Registrar directorios candidatos a quedar vacíos
+        if (pruneEmptyDirectories) {
+            touchedDirectories.addParentsOf(chunk.getItems().stream()
+                .filter(CleanupResult::isDeleted)
+                .map(CleanupResult::getSourcePath)
+                .toList());
         }
+        
+        // 5. Log resumen
+        long successCount = chunk.getItems().stream().filter(CleanupResult::isDeleted).count();
+        long failedCount = chunk.size() - successCount;
+        
+        log.info("✅ Cleanup chunk completed: {} deleted, {} failed", successCount, failedCount);
     }
 
     /**
@@ -13,25 +13,53 @@
  */
 package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.writter;
 
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.reader.FilesIndexLeaseSweeper;
 import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.DisorganizedFilesIndexDocument;
 import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpDestinationRepository;
 import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpOriginRepository;
+import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpServerSideRepository;
 import com.indra.minsait.dvsmart.reorganization.domain.model.ArchivoLegacy;
+import com.indra.minsait.dvsmart.reorganization.domain.model.ReorganizationResult;
 import com.indra.minsait.dvsmart.reorganization.domain.service.FileReorganizationService;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.ConcurrencyLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties;
 import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
-import lombok.RequiredArgsConstructor;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.TransferMode;
+import com.mongodb.bulk.BulkWriteResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.infrastructure.item.Chunk;
 import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -41,90 +69,532 @@ import java.time.Instant;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class SftpMoveAndIndexItemWriter implements ItemWriter<ArchivoLegacy> {
 
     private final SftpOriginRepository originRepo;
     private final SftpDestinationRepository destRepo;
+    private final SftpServerSideRepository serverSideRepo;
     private final MongoTemplate mongoTemplate;  // ✅ CAMBIO: Inyectar MongoTemplate
     private final FileReorganizationService reorganizationService;
     private final SftpConfigProperties props;
+    private final TaskExecutor transferExecutor;
+    private final TaskExecutor rangeExecutor;
+    private final ConcurrencyLimiter originLimiter;
+    private final ConcurrencyLimiter destinationLimiter;
+    private final FilesIndexLeaseSweeper leaseSweeper;
+    private final Duration leaseDuration;
+    private final boolean moveEnabled;
+    private volatile boolean rangeTransfersSupported = true;
 
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public SftpMoveAndIndexItemWriter(SftpOriginRepository originRepo,
+                                      SftpDestinationRepository destRepo,
+                                      SftpServerSideRepository serverSideRepo,
+                                      MongoTemplate mongoTemplate,
+                                      FileReorganizationService reorganizationService,
+                                      SftpConfigProperties props,
+                                      BatchConfigProperties batchProps,
+                                      FilesIndexLeaseSweeper leaseSweeper,
+                                      @Qualifier("sftpTransferExecutor") TaskExecutor transferExecutor,
+                                      @Qualifier("sftpRangeTransferExecutor") TaskExecutor rangeExecutor,
+                                      @Qualifier("originConcurrencyLimiter") ConcurrencyLimiter originLimiter,
+                                      @Qualifier("destinationConcurrencyLimiter") ConcurrencyLimiter destinationLimiter) {
+        this.originRepo = originRepo;
+        this.destRepo = destRepo;
+        this.serverSideRepo = serverSideRepo;
+        this.mongoTemplate = mongoTemplate;
+        this.reorganizationService = reorganizationService;
+        this.props = props;
+        this.transferExecutor = transferExecutor;
+        this.rangeExecutor = rangeExecutor;
+        this.originLimiter = originLimiter;
+        this.destinationLimiter = destinationLimiter;
+        this.leaseSweeper = leaseSweeper;
+        this.leaseDuration = Duration.ofSeconds(batchProps.getClaim().getLeaseSeconds());
+        this.moveEnabled = props.getTransfer().getMode() == TransferMode.MOVE;
+        if (moveEnabled && !serverSideRepo.isAvailable()) {
+            log.warn("sftp.transfer.mode=MOVE requires server-side access to origin and destination; using COPY");
+        }
+    }
+
+    /**
+     * Transfiere los archivos del chunk en paralelo.
+     * 
+     * 1. Lanza una transferencia por archivo en sftpTransferExecutor
+     *    (límite: batch.transfer-concurrency o, con hilos virtuales,
+     *    los ConcurrencyLimiter de origen/destino)
+     * 2. Espera a que terminen todas y recoge el resultado de cada una
+     *    (con claim/lease, renovando el lease mientras duran)
+     * 3. Actualiza el estado en MongoDB (solo si el claim sigue siendo nuestro)
+     */
     @Override
     public void write(Chunk<? extends ArchivoLegacy> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        List<CompletableFuture<ReorganizationResult>> futures = new ArrayList<>(chunk.size());
+        
         for (ArchivoLegacy archivo : chunk) {
-            long startTime = System.currentTimeMillis();
-            
+            futures.add(CompletableFuture.supplyAsync(() -> transfer(archivo), transferExecutor));
+        }
+        
+        awaitTransfers(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])), chunk);
+        
+        List<ReorganizationResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<ReorganizationResult> future : futures) {
+            results.add(future.join());
+        }
+        
+        // ✅ Actualizar MongoDB (bulk, un solo round-trip por chunk)
+        updateReorgStatusBatch(results);
+    }
+
+    /**
+     * Espera a las transferencias del chunk. Con claim/lease renueva el lease al
+     * empezar y cada tercio de su duración, para que un chunk lento (archivos
+     * grandes, rangos, throttling) no sea reclamado por otra ejecución.
+     */
+    private void awaitTransfers(CompletableFuture<Void> transfers, Chunk<? extends ArchivoLegacy> chunk) {
+        Map<String, Set<String>> claims = new HashMap<>();
+        for (ArchivoLegacy archivo : chunk) {
+            if (archivo.getClaimToken() != null) {
+                claims.computeIfAbsent(archivo.getClaimOwner(), owner -> new HashSet<>()).add(archivo.getClaimToken());
+            }
+        }
+        
+        if (claims.isEmpty()) {
+            transfers.join();
+            return;
+        }
+        
+        long renewIntervalMs = Math.max(1000, leaseDuration.toMillis() / 3);
+        renewLeases(claims);
+        
+        while (true) {
             try {
-                String destinationPath = copyFileToDestination(archivo);
-                
-                long duration = System.currentTimeMillis() - startTime;
-                
-                // ✅ ACTUALIZAR documento con estado COMPLETED
-                updateReorgStatus(
-                    archivo.getIdUnico(),
-                    "COMPLETED",
-                    destinationPath,
-                    duration,
-                    null
-                );
-                
-                log.debug("✅ Processed successfully: {} -> {} ({}ms)", 
-                    archivo.getRutaOrigen(), destinationPath, duration);
-                
-            } catch (Exception e) {
-                log.error("❌ Failed to process: {}", archivo.getIdUnico(), e);
-                
-                long duration = System.currentTimeMillis() - startTime;
-                
-                // ✅ ACTUALIZAR documento con estado FAILED
-                updateReorgStatus(
-                    archivo.getIdUnico(),
-                    "FAILED",
-                    null,
-                    duration,
-                    e.getMessage()
-                );
+                transfers.get(renewIntervalMs, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                renewLeases(claims);
+            } catch (ExecutionException e) {
+                return;  // transfer() no lanza: el fallo queda en cada resultado
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for chunk transfers", e);
             }
         }
     }
 
+    private void renewLeases(Map<String, Set<String>> claims) {
+        claims.forEach((owner, tokens) -> {
+            long renewed = leaseSweeper.renew(tokens, owner, leaseDuration);
+            log.debug("Lease renewed for {} documents (owner: {})", renewed, owner);
+        });
+    }
+
+    /**
+     * Transfiere un archivo. Nunca lanza excepción: el fallo queda en el resultado.
+     */
+    private ReorganizationResult transfer(ArchivoLegacy archivo) {
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            // Modo MOVE: rename en el servidor (origen y destino en el mismo filesystem)
+            if (moveEnabled) {
+                String destinationPath = resolveDestinationPath(archivo);
+                if (moveOnServer(archivo.getRutaOrigen(), destinationPath)) {
+                    long duration = System.currentTimeMillis() - startTime;
+                    log.debug("✅ Moved: {} -> {} ({}ms)", archivo.getRutaOrigen(), destinationPath, duration);
+                    return ReorganizationResult.moved(archivo, destinationPath, duration);
+                }
+            }
+            
+            String destinationPath = copyFileToDestination(archivo);
+            
+            long duration = System.currentTimeMillis() - startTime;
+            
+            log.debug("✅ Processed successfully: {} -> {} ({}ms)", 
+                archivo.getRutaOrigen(), destinationPath, duration);
+            
+            return ReorganizationResult.success(archivo, destinationPath, duration);
+            
+        } catch (Exception e) {
+            log.error("❌ Failed to process: {}", archivo.getIdUnico(), e);
+            
+            long duration = System.currentTimeMillis() - startTime;
+            
+            return ReorganizationResult.failure(archivo, duration, e.getMessage());
+        }
+    }
+
+	private String resolveDestinationPath(ArchivoLegacy archivo) {
+		// Ruta destino precalculada en hashPartitionProcessor
+		return archivo.getRutaDestino() != null
+		    ? archivo.getRutaDestino()
+		    : reorganizationService.calculateDestinationPath(archivo, props.getDest().getBaseDir());
+	}
+
 	private String copyFileToDestination(ArchivoLegacy archivo) throws IOException {
-		// Calcular ruta destino
-		String destinationPath = reorganizationService.calculateDestinationPath(
-		    archivo, props.getDest().getBaseDir());
+		String destinationPath = resolveDestinationPath(archivo);
 		
-		// Transferir archivo
-		try (InputStream in = originRepo.readFile(archivo.getRutaOrigen())) {
-		    destRepo.transferTo(destinationPath, in);
+		// Copia en el servidor si origen y destino comparten host (solo sesión destino)
+		if (serverSideRepo.isAvailable() && copyOnServer(archivo.getRutaOrigen(), destinationPath)) {
+		    return destinationPath;
+		}
+		
+		// Archivos grandes: rangos en paralelo sobre varias sesiones
+		// (si el cliente SFTP no admite rangos, copia en un único stream)
+		if (isRangeParallelCandidate(archivo) && transferInRanges(archivo.getRutaOrigen(), destinationPath)) {
+		    return destinationPath;
+		}
+		
+		// Transferir archivo: un permiso por endpoint (siempre origen → destino)
+		acquire(originLimiter);
+		try {
+		    acquire(destinationLimiter);
+		    try {
+		        copyAttributed(() -> originRepo.readFile(archivo.getRutaOrigen()),
+		            in -> destRepo.transferTo(destinationPath, in));
+		    } finally {
+		        destinationLimiter.release();
+		    }
+		} finally {
+		    originLimiter.release();
 		}
 		return destinationPath;
 	}
 
+	private boolean isRangeParallelCandidate(ArchivoLegacy archivo) {
+		return rangeTransfersSupported
+		    && props.getTransfer().getRangeParallelParts() > 1
+		    && archivo.getTamano() != null
+		    && archivo.getTamano() >= props.getTransfer().getRangeParallelThresholdBytes();
+	}
+
+	/**
+	 * Transfiere un archivo grande en rangos de bytes paralelos.
+	 * 
+	 * 1. Tamaño real en origen (el de files_index solo decide si aplica)
+	 * 2. Crea el archivo destino vacío (y sus directorios)
+	 * 3. Cada rango: lectura en su offset y escritura en el mismo offset,
+	 *    cada uno con sus propias sesiones y permisos
+	 * 4. Verifica que el tamaño final coincide con el de origen
+	 * 
+	 * Al primer rango fallido se cancelan los demás (los pendientes no empiezan y
+	 * los que están en curso cortan su stream). Siempre se espera a que todos los
+	 * rangos hayan terminado, de modo que ni el fallback a un único stream ni el
+	 * reintento escriben a la vez que un rango huérfano. Si la transferencia no se
+	 * completa, el archivo destino parcial se borra (best-effort).
+	 * 
+	 * @return false si el cliente SFTP no admite lecturas/escrituras por rango:
+	 *         el archivo (y los siguientes) se copian en un único stream
+	 */
+	private boolean transferInRanges(String sourcePath, String destinationPath) throws IOException {
+		long size = originRepo.size(sourcePath);
+		int parts = props.getTransfer().getRangeParallelParts();
+		long rangeSize = (size + parts - 1) / parts;
+		
+		destRepo.transferTo(destinationPath, InputStream.nullInputStream());
+		
+		AtomicBoolean cancelled = new AtomicBoolean(false);
+		AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+		
+		List<CompletableFuture<Void>> ranges = new ArrayList<>(parts);
+		for (long offset = 0; offset < size; offset += rangeSize) {
+		    long rangeOffset = offset;
+		    long rangeLength = Math.min(rangeSize, size - offset);
+		    ranges.add(CompletableFuture.runAsync(
+		        () -> copyRange(sourcePath, destinationPath, rangeOffset, rangeLength, cancelled), rangeExecutor)
+		        .whenComplete((ignored, e) -> {
+		            if (e != null && firstFailure.compareAndSet(null, unwrap(e))) {
+		                cancelled.set(true);
+		            }
+		        }));
+		}
+		
+		try {
+		    // allOf no termina hasta que todos los rangos han acabado (bien, con error o cancelados
+		    // por el flag): ningún rango sigue escribiendo ni reteniendo permisos tras este punto
+		    CompletableFuture.allOf(ranges.toArray(new CompletableFuture[0])).join();
+		} catch (CompletionException e) {
+		    Throwable failure = firstFailure.get() != null ? firstFailure.get() : unwrap(e);
+		    deletePartialDestination(destinationPath);
+		    if (isUnsupported(failure)) {
+		        rangeTransfersSupported = false;
+		        log.warn("Range transfers not supported by SFTP client, using single-stream copy");
+		        return false;
+		    }
+		    throw new IOException("Range transfer failed: " + sourcePath, failure);
+		}
+		
+		long written = destRepo.size(destinationPath);
+		if (written != size) {
+		    deletePartialDestination(destinationPath);
+		    throw new IOException("Size mismatch after range transfer: " + destinationPath 
+		        + " (expected " + size + ", found " + written + ")");
+		}
+		
+		log.debug("Range transfer completed: {} ({} bytes, {} ranges)", destinationPath, size, ranges.size());
+		return true;
+	}
+
+	/**
+	 * Borra el destino de una transferencia por rangos incompleta para no dejar
+	 * un archivo truncado en la ruta organizada
+	 */
+	private void deletePartialDestination(String destinationPath) {
+		try {
+		    destRepo.delete(destinationPath);
+		} catch (RuntimeException e) {
+		    log.warn("⚠️ Could not delete partial destination after range transfer: {}", destinationPath, e);
+		}
+	}
+
+	private void copyRange(String sourcePath, String destinationPath, long offset, long length, 
+	                       AtomicBoolean cancelled) {
+		try {
+		    if (cancelled.get()) {
+		        throw new IOException("Range transfer cancelled: " + sourcePath);
+		    }
+		    acquire(originLimiter);
+		    try {
+		        acquire(destinationLimiter);
+		        try {
+		            copyAttributed(() -> originRepo.readRange(sourcePath, offset, length),
+		                in -> destRepo.writeRange(destinationPath, offset, new CancellableInputStream(in, cancelled)));
+		        } finally {
+		            destinationLimiter.release();
+		        }
+		    } finally {
+		        originLimiter.release();
+		    }
+		} catch (IOException e) {
+		    throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Throwable unwrap(Throwable e) {
+		return (e instanceof CompletionException || e instanceof UncheckedIOException) && e.getCause() != null
+		    ? e.getCause()
+		    : e;
+	}
+
+	private static boolean isUnsupported(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+		    if (t instanceof UnsupportedOperationException) {
+		        return true;
+		    }
+		}
+		return false;
+	}
+
+	/**
+	 * Stream de un rango que deja de leer en cuanto otro rango del archivo falla
+	 */
+	private static class CancellableInputStream extends FilterInputStream {
+
+		private final AtomicBoolean cancelled;
+
+		CancellableInputStream(InputStream in, AtomicBoolean cancelled) {
+		    super(in);
+		    this.cancelled = cancelled;
+		}
+
+		@Override
+		public int read() throws IOException {
+		    checkCancelled();
+		    return super.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+		    checkCancelled();
+		    return super.read(b, off, len);
+		}
+
+		private void checkCancelled() throws IOException {
+		    if (cancelled.get()) {
+		        throw new IOException("Range transfer cancelled");
+		    }
+		}
+	}
+
+	private boolean moveOnServer(String sourcePath, String destinationPath) throws IOException {
+		return onServer(() -> serverSideRepo.move(sourcePath, destinationPath));
+	}
+
+	private boolean copyOnServer(String sourcePath, String destinationPath) throws IOException {
+		return onServer(() -> serverSideRepo.copy(sourcePath, destinationPath));
+	}
+
+	/**
+	 * Operación en el servidor destino (rename/copy remoto): solo usa sesión
+	 * destino, así que solo alimenta al limitador destino. Un false (método no
+	 * disponible) no ha hecho trabajo y no cuenta como muestra.
+	 */
+	private boolean onServer(BooleanSupplier operation) throws IOException {
+		acquire(destinationLimiter);
+		long start = System.nanoTime();
+		try {
+		    boolean done = operation.getAsBoolean();
+		    if (done) {
+		        destinationLimiter.onSuccess(System.nanoTime() - start);
+		    }
+		    return done;
+		} catch (RuntimeException e) {
+		    destinationLimiter.onFailure(e);
+		    throw e;
+		} finally {
+		    destinationLimiter.release();
+		}
+	}
+
+	/**
+	 * Copia origen → destino alimentando cada limitador con su propia fase:
+	 * - Origen: apertura del stream + tiempo bloqueado en read()
+	 * - Destino: el resto de la copia (escrituras y ACKs)
+	 * Un fallo se atribuye al origen si lo lanzó la apertura o una lectura,
+	 * y al destino en otro caso.
+	 */
+	private void copyAttributed(Supplier<InputStream> origin, Consumer<InputStream> destination) throws IOException {
+		long start = System.nanoTime();
+		OriginTimedInputStream in;
+		try {
+		    in = new OriginTimedInputStream(origin.get(), System.nanoTime() - start);
+		} catch (RuntimeException e) {
+		    originLimiter.onFailure(e);
+		    throw e;
+		}
+		
+		try (in) {
+		    destination.accept(in);
+		    long totalNanos = System.nanoTime() - start;
+		    originLimiter.onSuccess(in.originNanos);
+		    destinationLimiter.onSuccess(Math.max(0, totalNanos - in.originNanos));
+		} catch (IOException | RuntimeException e) {
+		    (in.originFailed ? originLimiter : destinationLimiter).onFailure(e);
+		    throw e;
+		}
+	}
+
+	/**
+	 * Stream de origen que mide el tiempo bloqueado en lecturas y si alguna falló
+	 * (se consume en un único thread: el de la escritura en destino)
+	 */
+	private static class OriginTimedInputStream extends FilterInputStream {
+
+		private long originNanos;
+		private boolean originFailed;
+
+		OriginTimedInputStream(InputStream in, long openNanos) {
+		    super(in);
+		    this.originNanos = openNanos;
+		}
+
+		@Override
+		public int read() throws IOException {
+		    long start = System.nanoTime();
+		    try {
+		        return super.read();
+		    } catch (IOException | RuntimeException e) {
+		        originFailed = true;
+		        throw e;
+		    } finally {
+		        originNanos += System.nanoTime() - start;
+		    }
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+		    long start = System.nanoTime();
+		    try {
+		        return super.read(b, off, len);
+		    } catch (IOException | RuntimeException e) {
+		        originFailed = true;
+		        throw e;
+		    } finally {
+		        originNanos += System.nanoTime() - start;
+		    }
+		}
+	}
+
+	private static void acquire(ConcurrencyLimiter limiter) throws IOException {
+		try {
+		    limiter.acquire();
+		} catch (InterruptedException e) {
+		    Thread.currentThread().interrupt();
+		    throw new IOException("Interrupted waiting for " + limiter.getName() + " permit", e);
+		}
+	}
+
     /**
-     * Actualiza el estado de reorganización en MongoDB
+     * Actualiza el estado de reorganización en MongoDB en bulk.
+     * 
+     * Filtra por _id (clave primaria); si el item no trae _id se usa idUnico.
+     * Con claim/lease filtra además por reorg_owner y reorg_claimToken: si el
+     * lease expiró y otra ejecución reclamó el documento, no se pisa su estado.
      */
-    private void updateReorgStatus(String idUnico, String status, 
-                                     String destinationPath, long durationMs, 
-                                     String errorDescription) {
-        Query query = Query.query(Criteria.where("idUnico").is(idUnico));
+    private void updateReorgStatusBatch(List<ReorganizationResult> results) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(
+            BulkOperations.BulkMode.UNORDERED,
+            DisorganizedFilesIndexDocument.class
+        );
         
-        Update update = new Update()
-                .set("reorg_status", status)
-                .inc("reorg_attempts", 1);  // Incrementar intentos
+        Instant now = Instant.now();
         
-        if ("COMPLETED".equals(status)) {
-            update.set("reorg_destinationPath", destinationPath);
-            update.set("reorg_completedAt", Instant.now());
-            update.set("reorg_durationMs", durationMs);
-            update.set("deleted_from_source", false);
+        for (ReorganizationResult result : results) {
+            Criteria criteria = result.getId() != null
+                ? Criteria.where("_id").is(result.getId())
+                : Criteria.where("idUnico").is(result.getIdUnico());
+            if (result.getClaimToken() != null) {
+                criteria.and("reorg_owner").is(result.getClaimOwner())
+                        .and("reorg_claimToken").is(result.getClaimToken());
+            }
+            Query query = new Query(criteria);
+            
+            Update update = new Update()
+                    .set("reorg_lastAttemptAt", now)
+                    .set("reorg_durationMs", result.getDurationMs())
+                    .unset("reorg_owner")            // Liberar claim/lease (modo claim)
+                    .unset("reorg_claimToken")
+                    .unset("reorg_leaseExpiresAt")
+                    .inc("reorg_attempts", 1);  // Incrementar intentos
+            
+            if (result.isCompleted()) {
+                update.set("reorg_status", "COMPLETED");
+                update.set("reorg_destinationPath", result.getDestinationPath());
+                update.set("reorg_completedAt", now);
+                if (result.isMoved()) {
+                    // Rename: el origen ya no existe, cleanup-origin-step no lo seleccionará
+                    update.set("deleted_from_source", true);
+                    update.set("source_deletion_date", now);
+                    update.set("deleted_by", "reorganize-step-move");
+                } else {
+                    update.set("deleted_from_source", false);
+                }
+            } else {
+                update.set("reorg_status", "FAILED");
+                update.set("reorg_errorDescription", result.getErrorMessage());
+            }
+            
+            bulkOps.updateOne(query, update);
         }
         
-        if (errorDescription != null) {
-            update.set("reorg_errorDescription", errorDescription);
+        BulkWriteResult writeResult = bulkOps.execute();
+        
+        int unmatched = results.size() - writeResult.getMatchedCount();
+        if (unmatched > 0) {
+            boolean claimed = results.stream().anyMatch(result -> result.getClaimToken() != null);
+            if (claimed) {
+                log.warn("⚠️ {} results not recorded: claim expired and was taken by another execution", unmatched);
+            } else {
+                log.warn("⚠️ {} results not recorded: _id/idUnico no longer present in files_index", unmatched);
+            }
         }
         
-        // Actualizar documento
-        mongoTemplate.updateFirst(query, update, DisorganizedFilesIndexDocument.class);
+        long completedCount = results.stream().filter(ReorganizationResult::isCompleted).count();
+        log.debug("Chunk status flushed to MongoDB: {} completed, {} failed", 
+            completedCount, results.size() - completedCount);
     }
-}
\ No newline at end of file
+}
@@ -16,11 +16,19 @@ package com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb
 import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.DisorganizedFilesIndexDocument;
 import com.indra.minsait.dvsmart.reorganization.application.port.out.DisorganizedFilesIndexRepository;
 import com.indra.minsait.dvsmart.reorganization.domain.model.ArchivoLegacy;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.MongoConfigProperties;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -33,6 +41,8 @@ import java.util.stream.Collectors;
 public class DisorganizedFilesIndexRepositoryImpl implements DisorganizedFilesIndexRepository {
 
     private final MongoTemplate mongoTemplate;
+    
+    private final MongoConfigProperties properties;
 
     @Override
     public List<ArchivoLegacy> findAll() {
@@ -47,8 +57,27 @@ public class DisorganizedFilesIndexRepositoryImpl implements DisorganizedFilesIn
                                     DisorganizedFilesIndexDocument.class);
     }
 
+    /**
+     * Agregación: PENDING → substrCP(idUnico, 0, prefixLength) → group → sort.
+     * Se ejecuta con allowDiskUse y se consume en streaming.
+     */
+    @Override
+    public Stream<String> streamPendingIdUnicoPrefixes(int prefixLength) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("reorg_status").is("PENDING")),
+                Aggregation.project()
+                        .and(StringOperators.valueOf("idUnico").substringCP(0, prefixLength)).as("prefix"),
+                Aggregation.group("prefix"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        
+        return mongoTemplate.aggregateStream(aggregation, properties.getFilesIndex(), Document.class)
+                .map(doc -> doc.getString("_id"));
+    }
+
     private ArchivoLegacy toModel(DisorganizedFilesIndexDocument doc) {
         return ArchivoLegacy.builder()
+                .id(doc.getId())
                 .idUnico(doc.getIdUnico())
                 .rutaOrigen(doc.getSourcePath())             // ✅ CAMBIO
                 .nombre(doc.getFileName())                   // ✅ CAMBIO
@@ -0,0 +1,140 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.codec;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity.FilesIndexEntry;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import java.time.Instant;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 14:05:12
+ * File: FilesIndexEntryCodec.java
+ */
+
+/**
+ * Codec BSON de solo lectura para FilesIndexEntry.
+ *
+ * Lee el documento campo a campo desde el BsonReader y descarta (skipValue)
+ * todo lo que no necesita, sin crear Document intermedio ni pasar por el
+ * MappingMongoConverter. Usar junto con PROJECTION para que el servidor
+ * envíe solo estos campos.
+ */
+public class FilesIndexEntryCodec implements Codec<FilesIndexEntry> {
+
+    /**
+     * Proyección con los campos que decodifica el codec
+     */
+    public static final Bson PROJECTION = new Document("_id", 1)
+            .append("idUnico", 1)
+            .append("sourcePath", 1)
+            .append("fileName", 1)
+            .append("lastModificationDate", 1)
+            .append("fileSize", 1)
+            .append("reorg_owner", 1)
+            .append("reorg_claimToken", 1);
+
+    /**
+     * Registry con este codec por delante del registry base de la colección
+     */
+    public static CodecRegistry registry(CodecRegistry base) {
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new FilesIndexEntryCodec()), base);
+    }
+
+    /**
+     * Convierte un _id en texto al valor almacenado (ObjectId si es hex válido)
+     */
+    public static Object toIdValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public FilesIndexEntry decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String idUnico = null;
+        String sourcePath = null;
+        String fileName = null;
+        Instant lastModificationDate = null;
+        Long fileSize = null;
+        String claimOwner = null;
+        String claimToken = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (field) {
+                case "_id" -> id = readId(reader);
+                case "idUnico" -> idUnico = reader.readString();
+                case "sourcePath" -> sourcePath = reader.readString();
+                case "fileName" -> fileName = reader.readString();
+                case "lastModificationDate" -> lastModificationDate = Instant.ofEpochMilli(reader.readDateTime());
+                case "fileSize" -> fileSize = readLong(reader);
+                case "reorg_owner" -> claimOwner = reader.readString();
+                case "reorg_claimToken" -> claimToken = reader.readString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new FilesIndexEntry(id, idUnico, sourcePath, fileName, lastModificationDate, fileSize,
+                claimOwner, claimToken);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, FilesIndexEntry value, EncoderContext encoderContext) {
+        // Solo lectura: las actualizaciones van por bulkOps sobre files_index
+        throw new UnsupportedOperationException("FilesIndexEntry is read-only");
+    }
+
+    @Override
+    public Class<FilesIndexEntry> getEncoderClass() {
+        return FilesIndexEntry.class;
+    }
+
+    private static String readId(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case OBJECT_ID -> reader.readObjectId().toHexString();
+            case STRING -> reader.readString();
+            default -> throw new IllegalStateException(
+                "Unsupported _id type in files_index: " + reader.getCurrentBsonType());
+        };
+    }
+
+    private static Long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT64 -> reader.readInt64();
+            case INT32 -> (long) reader.readInt32();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+}
@@ -55,7 +55,7 @@ public class DisorganizedFilesIndexDocument {
 	private String indexing_errorDescription;
 
 	// ========== CONTROL DE REORGANIZACIÓN ==========
-	private String reorg_status; // PENDING | COMPLETED | FAILED | SKIPPED
+	private String reorg_status; // PENDING | IN_PROGRESS | COMPLETED | FAILED | SKIPPED
 	private String reorg_destinationPath;
 	private Instant reorg_completedAt;
 	private Long reorg_jobExecutionId;
@@ -64,6 +64,11 @@ public class DisorganizedFilesIndexDocument {
 	private String reorg_errorDescription;
 	private Instant reorg_lastAttemptAt;
 
+	// ========== CLAIM / LEASE (lectura concurrente) ==========
+	private String reorg_owner; // Instancia + ejecución que reclamó el documento
+	private String reorg_claimToken; // Lote de reclamación
+	private Instant reorg_leaseExpiresAt; // Tras esta fecha el documento puede reclamarse de nuevo
+
 	// ========== METADATA DE NEGOCIO (OPCIONAL) ==========
 	private String business_tipoDocumento;
 	private String business_codigoCliente;
@@ -0,0 +1,40 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.persistence.mongodb.entity;
+
+import java.time.Instant;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 14:02:37
+ * File: FilesIndexEntry.java
+ */
+
+/**
+ * Vista compacta e inmutable de un documento de files_index para la reorganización.
+ *
+ * Contiene solo los campos que usa el pipeline de copia. Se decodifica
+ * directamente del BSON con FilesIndexEntryCodec (sin mapeo de Spring Data),
+ * frente a los ~25 campos de DisorganizedFilesIndexDocument.
+ */
+public record FilesIndexEntry(
+        String id,                      // _id (hex si es ObjectId)
+        String idUnico,
+        String sourcePath,
+        String fileName,
+        Instant lastModificationDate,
+        Long fileSize,
+        String claimOwner,              // reorg_owner (solo con claim/lease)
+        String claimToken) {            // reorg_claimToken (solo con claim/lease)
+}
@@ -0,0 +1,107 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 10:02:37
+ * File: DestinationDirectoryCache.java
+ */
+
+/**
+ * Cache (a nivel de proceso) de directorios que se sabe que existen en el SFTP destino.
+ *
+ * - Sin locks: ConcurrentHashMap + contador atómico
+ * - Acotada: al superar sftp.dest.directory-cache-size se descarta una entrada arbitraria
+ * - Compartida por todos los threads de transferencia
+ *
+ * Evita el stat (session.exists) y el mkdir de cada segmento del path en cada archivo.
+ */
+@Slf4j
+@Component
+public class DestinationDirectoryCache {
+
+    private final Set<String> knownDirectories = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+    
+    /**
+     * true cuando un paso previo ha creado todo el árbol de particiones destino
+     */
+    private volatile boolean treeMaterialized = false;
+
+    public DestinationDirectoryCache(SftpConfigProperties props) {
+        this.maxEntries = props.getDest().getDirectoryCacheSize();
+    }
+
+    public boolean isKnown(String directory) {
+        return knownDirectories.contains(directory);
+    }
+
+    /**
+     * Registra un directorio existente. Si la cache está llena descarta otra entrada.
+     */
+    public void markKnown(String directory) {
+        if (maxEntries <= 0 || !knownDirectories.add(directory)) {
+            return;
+        }
+
+        if (size.incrementAndGet() > maxEntries) {
+            Iterator<String> it = knownDirectories.iterator();
+            while (it.hasNext()) {
+                String candidate = it.next();
+                if (!candidate.equals(directory) && knownDirectories.remove(candidate)) {
+                    size.decrementAndGet();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalida un directorio y todos sus ancestros (tras un mkdir fallido
+     * alguno de ellos puede haber desaparecido del destino).
+     */
+    public void invalidate(String directory) {
+        String current = directory;
+        while (!current.isEmpty()) {
+            if (knownDirectories.remove(current)) {
+                size.decrementAndGet();
+            }
+            int lastSlash = current.lastIndexOf('/');
+            current = lastSlash <= 0 ? "" : current.substring(0, lastSlash);
+        }
+        log.debug("Directory cache invalidated for: {}", directory);
+    }
+
+    public boolean isTreeMaterialized() {
+        return treeMaterialized;
+    }
+
+    public void setTreeMaterialized(boolean treeMaterialized) {
+        this.treeMaterialized = treeMaterialized;
+    }
+
+    public int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp;
+
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.client.impl.SftpResponse;
+import org.apache.sshd.sftp.client.impl.SftpStatus;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 17:05:31
+ * File: PipelinedSftpInputStream.java
+ */
+
+/**
+ * InputStream SFTP con read-ahead: mantiene hasta "window" peticiones READ
+ * en vuelo por archivo, de modo que el throughput no queda limitado a
+ * bufferSize / RTT en enlaces con latencia.
+ *
+ * - Las respuestas se consumen en orden de offset (receive por id)
+ * - Una lectura corta (el servidor devuelve menos de lo pedido) genera una
+ *   petición para el resto, que se atiende antes que las siguientes
+ * - Tras EOF no se envían más peticiones; close() descarta las pendientes
+ * - Opcionalmente limitado a un rango de bytes (transferencia por rangos)
+ */
+final class PipelinedSftpInputStream extends InputStream {
+
+    private final RawSftpClient raw;
+    private final SftpClient.CloseableHandle handle;
+    private final byte[] handleId;
+    private final int chunkSize;
+    private final int window;
+    private final Duration timeout;
+
+    private final Deque<PendingRead> pending = new ArrayDeque<>();
+    private final long endOffset;
+    private long requestOffset;
+    private boolean eof = false;
+
+    private Buffer current;
+    private int currentRemaining = 0;
+    private boolean closed = false;
+
+    PipelinedSftpInputStream(SftpClient client, RawSftpClient raw, String path,
+                             int chunkSize, int window, Duration timeout) throws IOException {
+        this(client, raw, path, chunkSize, window, timeout, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Lee solo el rango [offset, offset + length)
+     */
+    PipelinedSftpInputStream(SftpClient client, RawSftpClient raw, String path,
+                             int chunkSize, int window, Duration timeout,
+                             long offset, long length) throws IOException {
+        this.raw = raw;
+        this.handle = client.open(path, OpenMode.Read);
+        this.handleId = handle.getIdentifier();
+        this.chunkSize = chunkSize;
+        this.window = Math.max(1, window);
+        this.timeout = timeout;
+        this.requestOffset = offset;
+        this.endOffset = length == Long.MAX_VALUE ? Long.MAX_VALUE : offset + length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (currentRemaining == 0 && !nextResponse()) {
+            return -1;
+        }
+        int n = Math.min(len, currentRemaining);
+        current.getRawBytes(b, off, n);
+        currentRemaining -= n;
+        return n;
+    }
+
+    /**
+     * Espera la siguiente respuesta DATA en orden
+     * 
+     * @return false si se alcanzó el final del archivo
+     */
+    private boolean nextResponse() throws IOException {
+        while (true) {
+            fillWindow();
+            PendingRead read = pending.pollFirst();
+            if (read == null) {
+                return false;
+            }
+
+            SftpResponse response = SftpResponse.parse(SftpConstants.SSH_FXP_READ, raw.receive(read.id(), timeout));
+
+            if (response.getType() == SftpConstants.SSH_FXP_DATA) {
+                Buffer buffer = response.getBuffer();
+                int length = buffer.getInt();
+                if (length < read.length()) {
+                    // Lectura corta: pedir el resto antes que las siguientes
+                    pending.addFirst(send(read.offset() + length, read.length() - length));
+                }
+                if (length == 0) {
+                    continue;
+                }
+                current = buffer;
+                currentRemaining = length;
+                return true;
+            }
+
+            SftpStatus status = SftpStatus.parse(response);
+            if (status.getStatusCode() == SftpConstants.SSH_FX_EOF) {
+                eof = true;
+                discardPending();
+                return false;
+            }
+            throw new SftpException(status.getStatusCode(), status.getMessage());
+        }
+    }
+
+    private void fillWindow() throws IOException {
+        while (!eof && pending.size() < window && requestOffset < endOffset) {
+            int length = (int) Math.min(chunkSize, endOffset - requestOffset);
+            pending.addLast(send(requestOffset, length));
+            requestOffset += length;
+        }
+    }
+
+    private PendingRead send(long offset, int length) throws IOException {
+        Buffer request = new ByteArrayBuffer(handleId.length + Long.BYTES + 2 * Integer.BYTES);
+        request.putBytes(handleId);
+        request.putLong(offset);
+        request.putInt(length);
+        return new PendingRead(raw.send(SftpConstants.SSH_FXP_READ, request), offset, length);
+    }
+
+    private void discardPending() {
+        PendingRead read;
+        while ((read = pending.pollFirst()) != null) {
+            try {
+                raw.receive(read.id(), timeout);
+            } catch (IOException e) {
+                // La respuesta ya no interesa
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        discardPending();
+        handle.close();
+    }
+
+
+    private record PendingRead(int id, long offset, int length) {
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp;
+
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.client.impl.SftpResponse;
+import org.apache.sshd.sftp.client.impl.SftpStatus;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 17:21:08
+ * File: PipelinedSftpOutputStream.java
+ */
+
+/**
+ * OutputStream SFTP con write-behind: cada write envía peticiones WRITE de
+ * hasta chunkSize bytes sin esperar su ACK, con un máximo de "window" en vuelo.
+ *
+ * El contenido se copia al paquete al enviarlo, por lo que el buffer del
+ * llamante puede reutilizarse inmediatamente. flush()/close() esperan todos
+ * los ACK pendientes y propagan el primer error.
+ */
+final class PipelinedSftpOutputStream extends OutputStream {
+
+    private final RawSftpClient raw;
+    private final SftpClient.CloseableHandle handle;
+    private final byte[] handleId;
+    private final int chunkSize;
+    private final int window;
+    private final Duration timeout;
+
+    private final Deque<Integer> pendingAcks = new ArrayDeque<>();
+    private long offset;
+    private boolean closed = false;
+
+    PipelinedSftpOutputStream(SftpClient client, RawSftpClient raw, String path,
+                              int chunkSize, int window, Duration timeout) throws IOException {
+        this(client, raw, path, chunkSize, window, timeout, 0L,
+            OpenMode.Write, OpenMode.Create, OpenMode.Truncate);
+    }
+
+    /**
+     * Escribe a partir de offset con los modos de apertura indicados
+     * (rangos: OpenMode.Write sobre un archivo ya creado)
+     */
+    PipelinedSftpOutputStream(SftpClient client, RawSftpClient raw, String path,
+                              int chunkSize, int window, Duration timeout,
+                              long offset, OpenMode... modes) throws IOException {
+        this.raw = raw;
+        this.handle = client.open(path, modes);
+        this.handleId = handle.getIdentifier();
+        this.chunkSize = chunkSize;
+        this.window = Math.max(1, window);
+        this.timeout = timeout;
+        this.offset = offset;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (len > 0) {
+            int n = Math.min(len, chunkSize);
+            
+            if (pendingAcks.size() >= window) {
+                awaitAck(pendingAcks.pollFirst());
+            }
+            
+            Buffer request = new ByteArrayBuffer(handleId.length + n + Long.BYTES + 2 * Integer.BYTES);
+            request.putBytes(handleId);
+            request.putLong(offset);
+            request.putBytes(b, off, n);
+            pendingAcks.addLast(raw.send(SftpConstants.SSH_FXP_WRITE, request));
+            
+            offset += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Espera todos los ACK en vuelo aunque alguno falle: las respuestas no
+     * recibidas quedarían en el cliente SFTP compartido por la sesión
+     */
+    @Override
+    public void flush() throws IOException {
+        IOException failure = null;
+        Integer id;
+        while ((id = pendingAcks.pollFirst()) != null) {
+            try {
+                awaitAck(id);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void awaitAck(int id) throws IOException {
+        SftpResponse response = SftpResponse.parse(SftpConstants.SSH_FXP_WRITE, raw.receive(id, timeout));
+        SftpStatus status = SftpStatus.parse(response);
+        if (!status.isOk()) {
+            throw new SftpException(status.getStatusCode(), status.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+        } finally {
+            handle.close();
+        }
+    }
+}
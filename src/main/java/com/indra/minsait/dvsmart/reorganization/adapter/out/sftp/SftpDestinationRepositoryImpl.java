@@ -14,15 +14,23 @@
 package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp;
 
 import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpDestinationRepository;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.TransferBufferPool;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.sshd.sftp.client.RawSftpClient;
 import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.integration.file.remote.session.Session;
 import org.springframework.integration.sftp.session.SftpRemoteFileTemplate;
 import org.springframework.stereotype.Repository;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -32,9 +40,11 @@ import java.io.InputStream;
 
 /**
  * Implementación optimizada con:
- * 1. Buffering para reducir llamadas de red
- * 2. Creación automática de directorios
+ * 1. Copia con un único buffer reutilizable (TransferBufferPool, sftp.dest.buffer-size)
+ *    y escrituras pipelined (sftp.dest.pipeline-window)
+ * 2. Creación automática de directorios (con cache de directorios existentes)
  * 3. Manejo robusto de errores
+ * 4. Límites de ops/s y bytes/s de escritura (destinationWriteRateLimiter)
  */
 @Slf4j
 @Repository
@@ -42,40 +52,146 @@ public class SftpDestinationRepositoryImpl implements SftpDestinationRepository
 
     private final SftpRemoteFileTemplate destinationTemplate;
     
+    private final DestinationDirectoryCache directoryCache;
+    
+    private final TransferBufferPool bufferPool;
+    
+    private final int bufferSize;
+    
+    private final int pipelineWindow;
+    
+    private final Duration timeout;
+    
+    private final RateLimiter rateLimiter;
+    
     // Constructor manual con @Qualifier (correcto para Lombok)
-    public SftpDestinationRepositoryImpl(@Qualifier("sftpDestinationTemplate") SftpRemoteFileTemplate destinationTemplate) {
+    public SftpDestinationRepositoryImpl(@Qualifier("sftpDestinationTemplate") SftpRemoteFileTemplate destinationTemplate,
+                                         @Qualifier("destinationWriteRateLimiter") RateLimiter rateLimiter,
+                                         DestinationDirectoryCache directoryCache,
+                                         TransferBufferPool bufferPool,
+                                         SftpConfigProperties props) {
         this.destinationTemplate = destinationTemplate;
+        this.rateLimiter = rateLimiter;
+        this.directoryCache = directoryCache;
+        this.bufferPool = bufferPool;
+        this.bufferSize = props.getDest().getBufferSize();
+        this.pipelineWindow = props.getDest().getPipelineWindow();
+        this.timeout = Duration.ofMillis(props.getDest().getTimeout());
     }
-    
-    // ✅ Buffer de 8KB para escritura eficiente
-    private static final int BUFFER_SIZE = 8192;
 
     @Override
-    public void transferTo(String remotePath, InputStream inputStream) {
+    public void transferTo(String remotePath, InputStream source) {
         try {
+            rateLimiter.acquireOperation();
+            InputStream inputStream = rateLimiter.throttle(source);
+            
             destinationTemplate.execute(session -> {
                 // 1. Crear directorios padre si no existen
-                createParentDirectories(session, remotePath);
+                //    (se omite si el árbol de particiones ya fue pre-creado)
+                boolean treeMaterialized = directoryCache.isTreeMaterialized();
+                if (!treeMaterialized) {
+                    createParentDirectories(session, remotePath);
+                }
                 
-                // 2. ✅ Envolver en BufferedInputStream para reducir I/O
-                try (BufferedInputStream bufferedInput = 
-                        new BufferedInputStream(inputStream, BUFFER_SIZE)) {
-                    
-                    // 3. Escribir archivo en destino
-                    session.write(bufferedInput, remotePath);
-                    
-                    log.trace("File transferred successfully: {}", remotePath);
+                // 2. Escribir archivo en destino
+                SftpClient client = (SftpClient) session.getClientInstance();
+                try {
+                    copy(client, inputStream, remotePath);
+                } catch (IOException e) {
+                    if (!treeMaterialized || !isMissingDirectory(e)) {
+                        throw e;
+                    }
+                    // El árbol pre-creado no cubre este archivo: crear padres y reintentar
+                    // (el open falla antes de consumir el stream)
+                    createParentDirectories(session, remotePath);
+                    copy(client, inputStream, remotePath);
                 }
                 
+                log.trace("File transferred successfully: {}", remotePath);
+                
                 return null;
             });
             
         } catch (Exception e) {
+            SftpOriginRepositoryImpl.restoreInterrupt(e);
             log.error("Error transferring file to destination SFTP: {}", remotePath, e);
             throw new RuntimeException("Failed to transfer file to destination SFTP: " + remotePath, e);
         }
     }
 
+    /**
+     * Copia el stream al archivo remoto con un único buffer del pool
+     * (sin BufferedInputStream ni buffer intermedio de la sesión).
+     */
+    private void copy(SftpClient client, InputStream in, String remotePath) throws IOException {
+        byte[] buffer = bufferPool.acquire(bufferSize);
+        try (OutputStream out = openForWrite(client, remotePath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Write-behind: hasta sftp.dest.pipeline-window escrituras sin ACK en vuelo
+     */
+    private OutputStream openForWrite(SftpClient client, String remotePath) throws IOException {
+        if (client instanceof RawSftpClient raw) {
+            return new PipelinedSftpOutputStream(client, raw, remotePath, bufferSize, pipelineWindow, timeout);
+        }
+        return client.write(remotePath, bufferSize, OpenMode.Write, OpenMode.Create, OpenMode.Truncate);
+    }
+
+    @Override
+    public void writeRange(String remotePath, long offset, InputStream source) {
+        try {
+            rateLimiter.acquireOperation();
+            InputStream inputStream = rateLimiter.throttle(source);
+            
+            destinationTemplate.execute(session -> {
+                SftpClient client = (SftpClient) session.getClientInstance();
+                if (!(client instanceof RawSftpClient raw)) {
+                    throw new UnsupportedOperationException("Range writes require a raw SFTP client");
+                }
+                
+                byte[] buffer = bufferPool.acquire(bufferSize);
+                try (OutputStream out = new PipelinedSftpOutputStream(client, raw, remotePath,
+                        bufferSize, pipelineWindow, timeout, offset, OpenMode.Write)) {
+                    int read;
+                    while ((read = inputStream.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                } finally {
+                    bufferPool.release(buffer);
+                }
+                return null;
+            });
+            
+        } catch (Exception e) {
+            SftpOriginRepositoryImpl.restoreInterrupt(e);
+            log.error("Error writing range at {} to destination SFTP: {}", offset, remotePath, e);
+            throw new RuntimeException("Failed to write range to destination SFTP: " + remotePath, e);
+        }
+    }
+
+    @Override
+    public long size(String remotePath) {
+        return destinationTemplate.execute(session -> 
+            ((SftpClient) session.getClientInstance()).stat(remotePath).getSize());
+    }
+
+    @Override
+    public void delete(String remotePath) {
+        try {
+            destinationTemplate.execute(session -> session.remove(remotePath));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete file on destination SFTP: " + remotePath, e);
+        }
+    }
+
     @Override
     public void createDirectories(String path) {
         String parentPath = getParentPath(path);
@@ -96,15 +212,36 @@ public class SftpDestinationRepositoryImpl implements SftpDestinationRepository
         }
     }
 
+    @Override
+    public void createDirectory(String directoryPath) {
+        if (directoryCache.isKnown(directoryPath)) {
+            return;
+        }
+        
+        try {
+            destinationTemplate.execute(session -> {
+                createParentDirectories(session, directoryPath + "/");
+                return null;
+            });
+            
+        } catch (Exception e) {
+            log.warn("Error creating directory: {}", directoryPath, e);
+            throw new RuntimeException("Failed to create directory on destination SFTP: " + directoryPath, e);
+        }
+    }
+
     /**
-     * Crea recursivamente todos los directorios padre necesarios
+     * Crea recursivamente todos los directorios padre necesarios.
+     * 
+     * Los directorios ya conocidos (DestinationDirectoryCache) no generan
+     * ninguna llamada SFTP.
      */
     private void createParentDirectories(Session<SftpClient.DirEntry> session, 
                                           String remotePath) throws IOException {
         String parentPath = getParentPath(remotePath);
         
-        if (parentPath.isEmpty()) {
-            return;  // Llegamos a la raíz
+        if (parentPath.isEmpty() || directoryCache.isKnown(parentPath)) {
+            return;  // Llegamos a la raíz o el directorio ya existe
         }
         
         // Dividir path en segmentos
@@ -119,12 +256,40 @@ public class SftpDestinationRepositoryImpl implements SftpDestinationRepository
             currentPath.append("/").append(dir);
             String pathToCreate = currentPath.toString();
             
+            if (directoryCache.isKnown(pathToCreate)) {
+                continue;
+            }
+            
             // Verificar si existe antes de crear
             if (!session.exists(pathToCreate)) {
-                session.mkdir(pathToCreate);
-                log.debug("Created directory: {}", pathToCreate);
+                try {
+                    session.mkdir(pathToCreate);
+                    log.debug("Created directory: {}", pathToCreate);
+                } catch (IOException e) {
+                    // Otro thread puede haberlo creado entre el exists y el mkdir
+                    if (!session.exists(pathToCreate)) {
+                        directoryCache.invalidate(pathToCreate);
+                        throw e;
+                    }
+                }
+            }
+            
+            directoryCache.markKnown(pathToCreate);
+        }
+    }
+
+    /**
+     * Indica si el error SFTP se debe a que no existe el directorio padre
+     */
+    static boolean isMissingDirectory(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SftpException sftpException) {
+                int status = sftpException.getStatus();
+                return status == SftpConstants.SSH_FX_NO_SUCH_FILE 
+                    || status == SftpConstants.SSH_FX_NO_SUCH_PATH;
             }
         }
+        return false;
     }
 
     /**
@@ -14,16 +14,19 @@
 package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp;
 
 import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpOriginRepository;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.sshd.sftp.client.RawSftpClient;
 import org.apache.sshd.sftp.client.SftpClient;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.integration.file.remote.session.Session;
 import org.springframework.integration.sftp.session.SftpRemoteFileTemplate;
 import org.springframework.stereotype.Repository;
-import java.io.BufferedInputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -34,8 +37,9 @@ import java.io.InputStream;
 /**
  * Implementación corregida que garantiza:
  * 1. Devolución de sesiones al pool
- * 2. Buffering para reducir llamadas de red
+ * 2. Lecturas de tamaño configurable (sftp.origin.buffer-size) sin doble buffer
  * 3. Manejo robusto de errores
+ * 4. Límites de ops/s y bytes/s de lectura (originReadRateLimiter)
  */
 @Slf4j
 @Repository
@@ -43,35 +47,50 @@ public class SftpOriginRepositoryImpl implements SftpOriginRepository {
 	
     private final SftpRemoteFileTemplate originTemplate;
     
+    private final int bufferSize;
+    
+    private final int pipelineWindow;
+    
+    private final Duration timeout;
+    
+    private final RateLimiter rateLimiter;
+    
     // Constructor manual con @Qualifier (correcto para Lombok)
-    public SftpOriginRepositoryImpl(@Qualifier("sftpOriginTemplate") SftpRemoteFileTemplate originTemplate) {
+    public SftpOriginRepositoryImpl(@Qualifier("sftpOriginTemplate") SftpRemoteFileTemplate originTemplate,
+                                    @Qualifier("originReadRateLimiter") RateLimiter rateLimiter,
+                                    SftpConfigProperties props) {
         this.originTemplate = originTemplate;
+        this.rateLimiter = rateLimiter;
+        this.bufferSize = props.getOrigin().getBufferSize();
+        this.pipelineWindow = props.getOrigin().getPipelineWindow();
+        this.timeout = Duration.ofMillis(props.getOrigin().getTimeout());
     }
-    
-    // ✅ Buffer de 8KB para reducir llamadas de red
-    private static final int BUFFER_SIZE = 8192;
 
     @Override
     public InputStream readFile(String path) {
         Session<SftpClient.DirEntry> session = null;
         
         try {
+            rateLimiter.acquireOperation();
+            
             // ✅ CRÍTICO: Obtener sesión explícitamente del pool
             session = originTemplate.getSessionFactory().getSession();
             
             log.trace("Session acquired from pool for file: {}", path);
             
-            // Abrir stream raw del archivo SFTP
-            InputStream rawStream = session.readRaw(path);
+            // ✅ Read-ahead: hasta sftp.origin.pipeline-window lecturas de
+            //    sftp.origin.buffer-size bytes en vuelo (sin BufferedInputStream)
+            SftpClient client = (SftpClient) session.getClientInstance();
+            InputStream sftpStream = client instanceof RawSftpClient raw
+                ? new PipelinedSftpInputStream(client, raw, path, bufferSize, pipelineWindow, timeout)
+                : client.read(path, bufferSize);
             
-            // ✅ Envolver en BufferedInputStream para performance
             // ✅ Envolver en SessionAwareInputStream para garantizar cierre de sesión
-            return new BufferedInputStream(
-                new SessionAwareInputStream(rawStream, session, path),
-                BUFFER_SIZE
-            );
+            return new SessionAwareInputStream(rateLimiter.throttle(sftpStream), session, path);
             
         } catch (Exception e) {
+            restoreInterrupt(e);
+            
             // ⚠️ Si falla antes de crear el stream, devolver sesión manualmente
             if (session != null) {
                 try {
@@ -87,11 +106,62 @@ public class SftpOriginRepositoryImpl implements SftpOriginRepository {
         }
     }
 
+    @Override
+    public InputStream readRange(String path, long offset, long length) {
+        Session<SftpClient.DirEntry> session = null;
+        
+        try {
+            rateLimiter.acquireOperation();
+            session = originTemplate.getSessionFactory().getSession();
+            
+            SftpClient client = (SftpClient) session.getClientInstance();
+            if (!(client instanceof RawSftpClient raw)) {
+                throw new UnsupportedOperationException("Range reads require a raw SFTP client");
+            }
+            
+            return new SessionAwareInputStream(rateLimiter.throttle(
+                new PipelinedSftpInputStream(client, raw, path, bufferSize, pipelineWindow, timeout, offset, length)),
+                session, path);
+            
+        } catch (Exception e) {
+            restoreInterrupt(e);
+            
+            if (session != null) {
+                try {
+                    session.close();
+                } catch (Exception closeEx) {
+                    log.warn("Failed to close session after error", closeEx);
+                }
+            }
+            
+            log.error("Error reading range [{}+{}] from origin SFTP: {}", offset, length, path, e);
+            throw new RuntimeException("Failed to read range from origin SFTP: " + path, e);
+        }
+    }
+
+    @Override
+    public long size(String path) {
+        return originTemplate.execute(session -> 
+            ((SftpClient) session.getClientInstance()).stat(path).getSize());
+    }
+
+    /**
+     * Restaura el flag de interrupción antes de envolver el error en una RuntimeException
+     * (espera en el rate limiter o en el pool interrumpida por parada/cancelación del job)
+     */
+    static void restoreInterrupt(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     /**
      * InputStream wrapper que garantiza:
-     * 1. Cierre del stream SFTP raw
-     * 2. Finalización del modo raw (session.finalizeRaw())
-     * 3. Devolución de la sesión al pool (session.close())
+     * 1. Cierre del stream SFTP (y su handle remoto)
+     * 2. Devolución de la sesión al pool (session.close())
      * 
      * CRÍTICO: Esta clase resuelve la fuga de sesiones del código original.
      */
@@ -116,12 +186,9 @@ public class SftpOriginRepositoryImpl implements SftpOriginRepository {
             }
             
             try {
-                // 1. Cerrar el stream raw
+                // 1. Cerrar el stream SFTP (cierra el handle remoto)
                 super.close();
                 
-                // 2. Finalizar modo raw en la sesión
-                session.finalizeRaw();
-                
                 log.trace("Stream closed and finalized for file: {}", path);
                 
             } catch (IOException e) {
@@ -129,7 +196,7 @@ public class SftpOriginRepositoryImpl implements SftpOriginRepository {
                 throw e;
                 
             } finally {
-                // 3. ✅ CRÍTICO: Devolver sesión al pool
+                // 2. ✅ CRÍTICO: Devolver sesión al pool
                 try {
                     session.close();
                     log.trace("Session returned to pool after reading: {}", path);
@@ -0,0 +1,353 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp;
+
+import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpDestinationRepository;
+import com.indra.minsait.dvsmart.reorganization.application.port.out.SftpServerSideRepository;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.ServerSideCopy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.sshd.common.channel.exception.SshChannelOpenException;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.client.extensions.CopyDataExtension;
+import org.apache.sshd.sftp.client.extensions.CopyFileExtension;
+import org.apache.sshd.sftp.client.extensions.openssh.OpenSSHPosixRenameExtension;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.integration.sftp.session.SftpRemoteFileTemplate;
+import org.springframework.stereotype.Repository;
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 15:58:14
+ * File: SftpServerSideRepositoryImpl.java
+ */
+
+/**
+ * Copia en el servidor SFTP destino cuando origen y destino comparten host.
+ *
+ * Métodos, en orden de preferencia (se detecta el primero que funciona):
+ * 1. Extensión SFTP copy-file
+ * 2. Extensión SFTP copy-data (handles de lectura y escritura en el servidor)
+ * 3. Comando remoto "cp" por un canal exec (sftp.transfer.exec-copy-enabled)
+ *
+ * Un método se descarta (y se prueba el siguiente) solo si el servidor indica
+ * que no lo soporta antes de haber funcionado alguna vez: SSH_FX_OP_UNSUPPORTED,
+ * extensión no anunciada o exec rechazado. Los errores de un archivo concreto
+ * (inexistente, sin permisos, cuota...) solo hacen fallar ese archivo. Si
+ * ningún método está disponible, copy() devuelve false y el writer vuelve a
+ * la copia en streaming.
+ *
+ * move() renombra el archivo a su destino (extensión posix-rename de OpenSSH
+ * o rename SFTP): una operación de metadatos en lugar de copia + borrado.
+ * - Si el origen ya no existe y el destino sí (rename completado antes de una
+ *   caída o de un fallo del bulk write), se considera movido
+ * - El move solo se desactiva si el servidor indica que no lo soporta
+ *   (SSH_FX_OP_UNSUPPORTED, cross-device) antes de haber funcionado; OpenSSH
+ *   traduce EXDEV a SSH_FX_FAILURE genérico, por lo que este se acepta como
+ *   señal solo tras MOVE_PROBE_FAILURES fallos de ese tipo antes del primer éxito
+ */
+@Slf4j
+@Repository
+public class SftpServerSideRepositoryImpl implements SftpServerSideRepository {
+
+    private enum CopyMethod { COPY_FILE, COPY_DATA, EXEC, NONE }
+
+    private static final int MOVE_PROBE_FAILURES = 3;
+
+    @FunctionalInterface
+    private interface ClientOperation {
+        void run(SftpClient client) throws IOException;
+    }
+
+    private final SftpRemoteFileTemplate destinationTemplate;
+    private final SftpDestinationRepository destRepo;
+    private final DestinationDirectoryCache directoryCache;
+    private final SftpConfigProperties props;
+    private final boolean available;
+
+    private volatile CopyMethod copyMethod = CopyMethod.COPY_FILE;
+    private volatile boolean copyMethodConfirmed = false;
+    private volatile boolean posixRenameSupported = true;
+    private volatile boolean moveConfirmed = false;
+    private volatile boolean moveDisabled = false;
+    private final AtomicInteger moveGenericFailures = new AtomicInteger();
+
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public SftpServerSideRepositoryImpl(@Qualifier("sftpDestinationTemplate") SftpRemoteFileTemplate destinationTemplate,
+                                        SftpDestinationRepository destRepo,
+                                        DestinationDirectoryCache directoryCache,
+                                        SftpConfigProperties props) {
+        this.destinationTemplate = destinationTemplate;
+        this.destRepo = destRepo;
+        this.directoryCache = directoryCache;
+        this.props = props;
+        this.available = resolveAvailability(props);
+        log.info("Server-side copy: {} (mode: {})", available ? "enabled" : "disabled",
+            props.getTransfer().getServerSideCopy());
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available && copyMethod != CopyMethod.NONE;
+    }
+
+    @Override
+    public boolean copy(String sourcePath, String destinationPath) {
+        while (isAvailable()) {
+            CopyMethod method = copyMethod;
+            try {
+                runWithParents(destinationPath, client -> execute(method, client, sourcePath, destinationPath));
+                confirm(method);
+                return true;
+            } catch (Exception e) {
+                if (copyMethodConfirmed || !isUnsupported(e)) {
+                    // Fallo puntual de este archivo: el método sigue en uso
+                    log.warn("Server-side copy failed ({}): {} → {}", method, sourcePath, destinationPath, e);
+                    return false;
+                }
+                downgrade(method, e);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean move(String sourcePath, String destinationPath) {
+        if (!available || moveDisabled) {
+            return false;
+        }
+        try {
+            runWithParents(destinationPath, client -> rename(client, sourcePath, destinationPath));
+            if (!moveConfirmed) {
+                moveConfirmed = true;
+                log.info("✅ Server-side move in use ({})", posixRenameSupported ? "posix-rename" : "rename");
+            }
+            return true;
+        } catch (Exception e) {
+            if (SftpDestinationRepositoryImpl.isMissingDirectory(e) && alreadyMoved(sourcePath, destinationPath)) {
+                // Reejecución de un rename ya completado
+                log.info("Already moved: {} → {}", sourcePath, destinationPath);
+                return true;
+            }
+            if (!moveConfirmed && isMoveUnsupported(e)) {
+                // Nunca ha funcionado (p.ej. filesystems distintos): dejar de intentarlo
+                moveDisabled = true;
+                log.warn("Server-side move unavailable ({}), falling back to copy + cleanup", rootMessage(e));
+            } else {
+                log.warn("Server-side move failed: {} → {}", sourcePath, destinationPath, e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * El origen ya no existe y el destino sí: el rename se hizo en una ejecución anterior
+     */
+    private boolean alreadyMoved(String sourcePath, String destinationPath) {
+        try {
+            return Boolean.TRUE.equals(destinationTemplate.execute(session ->
+                !session.exists(sourcePath) && session.exists(destinationPath)));
+        } catch (Exception e) {
+            log.debug("Could not check previous move of {}: {}", sourcePath, rootMessage(e));
+            return false;
+        }
+    }
+
+    /**
+     * Indica si el error de rename significa que el servidor no puede mover entre
+     * origen y destino (y no un fallo del archivo: inexistente, sin permisos...)
+     */
+    private boolean isMoveUnsupported(Throwable e) {
+        if (isUnsupported(e)) {
+            return true;
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message != null && (message.contains("cross-device") || message.contains("EXDEV"))) {
+                return true;
+            }
+            if (t instanceof SftpException sftpException) {
+                return sftpException.getStatus() == SftpConstants.SSH_FX_FAILURE
+                    && moveGenericFailures.incrementAndGet() >= MOVE_PROBE_FAILURES;
+            }
+        }
+        return false;
+    }
+
+    private void rename(SftpClient client, String sourcePath, String destinationPath) throws IOException {
+        if (posixRenameSupported) {
+            OpenSSHPosixRenameExtension extension = client.getExtension(OpenSSHPosixRenameExtension.class);
+            if (extension != null && extension.isSupported()) {
+                // Atómico y sobrescribe el destino si existe (reintentos idempotentes)
+                extension.posixRename(sourcePath, destinationPath);
+                return;
+            }
+            posixRenameSupported = false;
+            log.info("posix-rename extension not supported by server, using SFTP rename");
+        }
+        client.rename(sourcePath, destinationPath);
+    }
+
+    /**
+     * Ejecuta la operación asegurando que existe el directorio padre del destino
+     */
+    private void runWithParents(String destinationPath, ClientOperation operation) {
+        String parent = getParentPath(destinationPath);
+        boolean treeMaterialized = directoryCache.isTreeMaterialized();
+        
+        if (!treeMaterialized && !parent.isEmpty()) {
+            destRepo.createDirectory(parent);
+        }
+        
+        try {
+            runOnClient(operation);
+        } catch (RuntimeException e) {
+            if (!treeMaterialized || parent.isEmpty() || !SftpDestinationRepositoryImpl.isMissingDirectory(e)) {
+                throw e;
+            }
+            // Directorio de partición desaparecido: recrear y reintentar una vez
+            directoryCache.invalidate(parent);
+            destRepo.createDirectory(parent);
+            runOnClient(operation);
+        }
+    }
+
+    private void runOnClient(ClientOperation operation) {
+        destinationTemplate.execute(session -> {
+            operation.run((SftpClient) session.getClientInstance());
+            return null;
+        });
+    }
+
+    private void execute(CopyMethod method, SftpClient client, String sourcePath, String destinationPath) 
+            throws IOException {
+        switch (method) {
+            case COPY_FILE -> copyFile(client, sourcePath, destinationPath);
+            case COPY_DATA -> copyData(client, sourcePath, destinationPath);
+            case EXEC -> execCopy(client, sourcePath, destinationPath);
+            default -> throw new IllegalStateException("No server-side copy method available");
+        }
+    }
+
+    private void copyFile(SftpClient client, String sourcePath, String destinationPath) throws IOException {
+        CopyFileExtension extension = client.getExtension(CopyFileExtension.class);
+        if (extension == null || !extension.isSupported()) {
+            throw new UnsupportedOperationException("copy-file extension not supported by server");
+        }
+        extension.copyFile(sourcePath, destinationPath, true);
+    }
+
+    private void copyData(SftpClient client, String sourcePath, String destinationPath) throws IOException {
+        CopyDataExtension extension = client.getExtension(CopyDataExtension.class);
+        if (extension == null || !extension.isSupported()) {
+            throw new UnsupportedOperationException("copy-data extension not supported by server");
+        }
+        try (SftpClient.CloseableHandle source = client.open(sourcePath, OpenMode.Read);
+             SftpClient.CloseableHandle target = client.open(destinationPath,
+                     OpenMode.Write, OpenMode.Create, OpenMode.Truncate)) {
+            // length 0 = hasta el final del archivo origen
+            extension.copyData(source, 0L, 0L, target, 0L);
+        }
+    }
+
+    private void execCopy(SftpClient client, String sourcePath, String destinationPath) throws IOException {
+        if (!props.getTransfer().isExecCopyEnabled()) {
+            throw new UnsupportedOperationException("exec copy disabled (sftp.transfer.exec-copy-enabled=false)");
+        }
+        String command = "cp -p -- " + shellQuote(sourcePath) + " " + shellQuote(destinationPath);
+        // Lanza RemoteException si el comando termina con error
+        client.getClientSession().executeRemoteCommand(command,
+            Duration.ofMillis(props.getDest().getTimeout()));
+    }
+
+    private void confirm(CopyMethod method) {
+        if (!copyMethodConfirmed) {
+            copyMethodConfirmed = true;
+            log.info("✅ Server-side copy method in use: {}", method);
+        }
+    }
+
+    private synchronized void downgrade(CopyMethod failed, Exception cause) {
+        if (copyMethod != failed) {
+            return;  // Otro thread ya lo descartó
+        }
+        copyMethod = CopyMethod.values()[failed.ordinal() + 1];
+        log.warn("Server-side copy method {} unavailable ({}), trying {}", 
+            failed, rootMessage(cause), copyMethod);
+    }
+
+    /**
+     * Indica si el error significa que el servidor no soporta la operación
+     * (y no un fallo del archivo concreto)
+     */
+    static boolean isUnsupported(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof UnsupportedOperationException || t instanceof SshChannelOpenException) {
+                return true;  // Extensión no anunciada / exec deshabilitado o rechazado
+            }
+            if (t instanceof SftpException sftpException) {
+                return sftpException.getStatus() == SftpConstants.SSH_FX_OP_UNSUPPORTED;
+            }
+            if (t instanceof RemoteException && t.getMessage() != null) {
+                // Canal exec sin resultado (solo SFTP) o comando inexistente/no ejecutable
+                String message = t.getMessage();
+                return message.startsWith("No exit status")
+                    || message.startsWith("Remote command failed (126)")
+                    || message.startsWith("Remote command failed (127)");
+            }
+        }
+        return false;
+    }
+
+    private static boolean resolveAvailability(SftpConfigProperties props) {
+        ServerSideCopy mode = props.getTransfer().getServerSideCopy();
+        if (mode == ServerSideCopy.DISABLED) {
+            return false;
+        }
+        if (mode == ServerSideCopy.ENABLED) {
+            return true;
+        }
+        SftpConfigProperties.Origin origin = props.getOrigin();
+        SftpConfigProperties.Destination dest = props.getDest();
+        return origin.getHost() != null
+            && origin.getHost().equalsIgnoreCase(dest.getHost())
+            && origin.getPort() == dest.getPort()
+            && Objects.equals(origin.getUser(), dest.getUser());
+    }
+
+    private static String shellQuote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private static String getParentPath(String fullPath) {
+        int lastSlash = fullPath.lastIndexOf('/');
+        return lastSlash <= 0 ? "" : fullPath.substring(0, lastSlash);
+    }
+}
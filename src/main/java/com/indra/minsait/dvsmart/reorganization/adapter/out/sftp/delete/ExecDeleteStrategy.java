@@ -0,0 +1,285 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete;
+
+import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupResult;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.DeleteStrategy;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.SshjConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import net.schmizz.sshj.connection.ConnectionException;
+import net.schmizz.sshj.connection.channel.direct.Session;
+import net.schmizz.sshj.transport.TransportException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 22:15:48
+ * File: ExecDeleteStrategy.java
+ */
+
+/**
+ * Borrado en bloque por un canal exec: un único comando remoto por chunk.
+ *
+ * - Las rutas se envían por stdin separadas por NUL (sin escapado de shell)
+ * - El comando (xargs -0 + sh) hace rm -f de cada una y responde por stdout
+ *   un registro "OK\t<ruta>\0" o "ERR\t<ruta>\0" por archivo
+ * - Cada registro se empareja con su CleanupResult; las rutas sin registro
+ *   quedan como fallidas
+ *
+ * rm -f considera borrado un archivo que ya no existía (el estado final es el
+ * mismo). Si el servidor rechaza exec, el chunk y los siguientes se borran
+ * con la estrategia PIPELINED.
+ *
+ * Todo el comando está acotado por sftp.cleanup.exec-timeout-ms: al vencer se
+ * cierra el canal (p.ej. un rm colgado en un NFS caído) y las rutas sin
+ * registro quedan como fallidas.
+ */
+@Slf4j
+@Component
+public class ExecDeleteStrategy implements OriginDeleteStrategy {
+
+    static final String REMOTE_COMMAND =
+        "xargs -0 sh -c 'for f do if rm -f -- \"$f\" 2>/dev/null; "
+        + "then printf \"OK\\t%s\\0\" \"$f\"; else printf \"ERR\\t%s\\0\" \"$f\"; fi; done' sh";
+
+    private final RateLimiter deleteRateLimiter;
+    private final PipelinedRemoveDeleteStrategy fallback;
+    private final long timeoutMs;
+
+    private volatile boolean execUnavailable = false;
+
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public ExecDeleteStrategy(@Qualifier("cleanupDeleteRateLimiter") RateLimiter deleteRateLimiter,
+                              PipelinedRemoveDeleteStrategy fallback,
+                              SftpConfigProperties props) {
+        this.deleteRateLimiter = deleteRateLimiter;
+        this.fallback = fallback;
+        this.timeoutMs = props.getCleanup().getExecTimeoutMs();
+    }
+
+    @Override
+    public DeleteStrategy type() {
+        return DeleteStrategy.EXEC;
+    }
+
+    @Override
+    public void delete(SshjConnectionPool.Lease lease, List<? extends CleanupResult> results) throws InterruptedException {
+        if (execUnavailable) {
+            fallback.delete(lease, results);
+            return;
+        }
+        
+        deleteRateLimiter.acquireOperations(results.size());
+        
+        Map<String, List<CleanupResult>> byPath = new HashMap<>(results.size() * 2);
+        for (CleanupResult result : results) {
+            byPath.computeIfAbsent(result.getSourcePath(), path -> new ArrayList<>(1)).add(result);
+        }
+        
+        Session.Command command;
+        try {
+            command = exec(lease);
+        } catch (ConnectionException e) {
+            // Canal exec rechazado (sin shell, ForceCommand internal-sftp...): no volver a intentarlo
+            execUnavailable = true;
+            log.warn("⚠️ Remote exec not available, falling back to pipelined SFTP removes: {}", e.getMessage());
+            fallback.delete(lease, results);
+            return;
+        } catch (TransportException e) {
+            lease.invalidate();
+            failAll(results, e.getMessage());
+            log.error("❌ Exec delete failed to start", e);
+            return;
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        
+        try (command) {
+            // stdin en otro thread: si el remoto llena stdout mientras leemos stdin, no hay bloqueo mutuo.
+            // Threads de plataforma: SSHJ bloquea en synchronized/wait, que fija el carrier de un virtual thread
+            // y en hosts con pocos cores dejaria sin ejecutar al vigilante
+            List<String> paths = new ArrayList<>(byPath.keySet());
+            Thread feeder = Thread.ofPlatform().daemon().name("cleanup-exec-feeder").start(() -> feed(command, paths));
+            
+            // Vigilante: la lectura de stdout se bloquea hasta EOF; al vencer el plazo se cierra el canal
+            Thread watchdog = Thread.ofPlatform().daemon().name("cleanup-exec-watchdog").start(() -> {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(deadline - System.nanoTime());
+                    timedOut.set(true);
+                    closeQuietly(command);
+                } catch (InterruptedException e) {
+                    // Comando terminado a tiempo
+                }
+            });
+            
+            // Rutas con registro, contadas al aplicarlas (también las leídas antes de un timeout)
+            AtomicInteger reported = new AtomicInteger();
+            try {
+                parseOutcomes(command.getInputStream(), byPath, reported);
+            } catch (IOException e) {
+                if (!timedOut.get()) {
+                    throw e;
+                }
+            } finally {
+                watchdog.interrupt();
+            }
+            
+            if (!timedOut.get()) {
+                feeder.join(remainingMillis(deadline));
+                command.join(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+                
+                String stderr = drain(command.getErrorStream());
+                if (!stderr.isBlank()) {
+                    log.warn("Exec delete stderr: {}", stderr.strip());
+                }
+            }
+            
+            // Rutas sin registro (comando interrumpido o colgado, xargs abortado...)
+            String missing = timedOut.get()
+                ? "Remote delete timed out after " + timeoutMs + "ms"
+                : "No outcome reported by remote delete (exit: " + command.getExitStatus() + ")";
+            if (timedOut.get()) {
+                log.error("❌ Exec delete timed out after {}ms: {} of {} paths without outcome",
+                    timeoutMs, byPath.size(), results.size());
+            }
+            byPath.values().forEach(pending -> failAll(pending, missing));
+            
+            log.debug("Exec delete: {} outcomes for {} paths (exit: {})", 
+                reported.get(), paths.size(), command.getExitStatus());
+            
+        } catch (IOException e) {
+            if (e instanceof TransportException || !lease.ssh().isConnected()) {
+                lease.invalidate();
+            }
+            byPath.values().forEach(pending -> failAll(pending, e.getMessage()));
+            log.error("❌ Exec delete failed", e);
+        }
+    }
+
+    private static Session.Command exec(SshjConnectionPool.Lease lease) throws ConnectionException, TransportException {
+        Session session = lease.ssh().startSession();
+        try {
+            return session.exec(REMOTE_COMMAND);
+        } catch (ConnectionException | TransportException e) {
+            try {
+                session.close();
+            } catch (IOException closeEx) {
+                log.debug("Error closing exec session", closeEx);
+            }
+            throw e;
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private static void closeQuietly(Session.Command command) {
+        try {
+            command.close();
+        } catch (IOException e) {
+            log.debug("Error closing timed out exec channel", e);
+        }
+    }
+
+    /**
+     * Escribe las rutas separadas por NUL y cierra stdin (fin de la lista para xargs)
+     */
+    private void feed(Session.Command command, Iterable<String> paths) {
+        try (OutputStream stdin = command.getOutputStream()) {
+            for (String path : paths) {
+                stdin.write(path.getBytes(StandardCharsets.UTF_8));
+                stdin.write(0);
+            }
+            stdin.flush();
+        } catch (IOException e) {
+            log.error("Failed to send paths to remote delete", e);
+        }
+    }
+
+    /**
+     * Lee los registros "OK|ERR\t<ruta>\0" y actualiza (y retira de byPath) sus CleanupResult
+     */
+    static void parseOutcomes(InputStream stdout, Map<String, List<CleanupResult>> byPath, 
+                              AtomicInteger reported) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        byte[] buffer = new byte[8192];
+        int read;
+        
+        while ((read = stdout.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] != 0) {
+                    record.write(buffer[i]);
+                    continue;
+                }
+                if (applyOutcome(record.toString(StandardCharsets.UTF_8), byPath)) {
+                    reported.incrementAndGet();
+                }
+                record.reset();
+            }
+        }
+    }
+
+    private static boolean applyOutcome(String record, Map<String, List<CleanupResult>> byPath) {
+        int tab = record.indexOf('\t');
+        if (tab < 0) {
+            return false;
+        }
+        
+        List<CleanupResult> matched = byPath.remove(record.substring(tab + 1));
+        if (matched == null) {
+            return false;
+        }
+        
+        boolean deleted = "OK".equals(record.substring(0, tab));
+        for (CleanupResult result : matched) {
+            result.setDeleted(deleted);
+            if (!deleted) {
+                result.setErrorMessage("Remote rm failed");
+            }
+        }
+        return true;
+    }
+
+    private static void failAll(List<? extends CleanupResult> results, String message) {
+        for (CleanupResult result : results) {
+            result.setDeleted(false);
+            result.setErrorMessage(message);
+        }
+    }
+
+    private static String drain(InputStream in) {
+        try {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
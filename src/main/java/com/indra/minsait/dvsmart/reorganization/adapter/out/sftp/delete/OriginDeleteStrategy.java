@@ -0,0 +1,42 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete;
+
+import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupResult;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.DeleteStrategy;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.SshjConnectionPool;
+import java.util.List;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 21:40:12
+ * File: OriginDeleteStrategy.java
+ */
+
+/**
+ * Estrategia de borrado de archivos en el SFTP origen (cleanup-origin-step).
+ *
+ * Recibe la conexión SSHJ prestada por OriginFileDeleteWriter y los resultados
+ * del chunk; marca deleted/errorMessage en cada CleanupResult. Un fallo de un
+ * archivo no debe interrumpir el resto. Si la conexión queda inutilizable
+ * debe llamar a lease.invalidate().
+ *
+ * Se selecciona con sftp.cleanup.delete-strategy.
+ */
+public interface OriginDeleteStrategy {
+
+    DeleteStrategy type();
+
+    void delete(SshjConnectionPool.Lease lease, List<? extends CleanupResult> results) throws InterruptedException;
+}
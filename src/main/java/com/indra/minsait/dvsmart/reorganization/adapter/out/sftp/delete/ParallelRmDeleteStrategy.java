@@ -0,0 +1,138 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete;
+
+import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupResult;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.ConcurrencyLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.DeleteStrategy;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.SshjConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import net.schmizz.sshj.connection.ConnectionException;
+import net.schmizz.sshj.sftp.SFTPClient;
+import net.schmizz.sshj.transport.TransportException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 21:44:37
+ * File: ParallelRmDeleteStrategy.java
+ */
+
+/**
+ * Borrado con rm bloqueante desde varios threads que comparten el SFTPClient
+ * (cleanupDeleteExecutor: batch.cleanup-concurrency threads o hilos virtuales,
+ * limitado por originConcurrencyLimiter).
+ *
+ * Una interrupción (de un thread del executor o del que espera) cancela los
+ * borrados pendientes del chunk y se propaga como InterruptedException.
+ */
+@Slf4j
+@Component
+public class ParallelRmDeleteStrategy implements OriginDeleteStrategy {
+
+    private final TaskExecutor deleteExecutor;
+    private final ConcurrencyLimiter originLimiter;
+    private final RateLimiter deleteRateLimiter;
+
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public ParallelRmDeleteStrategy(@Qualifier("cleanupDeleteExecutor") TaskExecutor deleteExecutor,
+                                    @Qualifier("originConcurrencyLimiter") ConcurrencyLimiter originLimiter,
+                                    @Qualifier("cleanupDeleteRateLimiter") RateLimiter deleteRateLimiter) {
+        this.deleteExecutor = deleteExecutor;
+        this.originLimiter = originLimiter;
+        this.deleteRateLimiter = deleteRateLimiter;
+    }
+
+    @Override
+    public DeleteStrategy type() {
+        return DeleteStrategy.PARALLEL_RM;
+    }
+
+    @Override
+    public void delete(SshjConnectionPool.Lease lease, List<? extends CleanupResult> results) 
+            throws InterruptedException {
+        SFTPClient sftpClient = lease.sftp();
+        AtomicBoolean connectionBroken = new AtomicBoolean(false);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        
+        List<CompletableFuture<Void>> futures = new ArrayList<>(results.size());
+        
+        for (CleanupResult result : results) {
+            CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+                if (interrupted.get()) {
+                    result.setDeleted(false);
+                    result.setErrorMessage("Cleanup interrupted before delete");
+                    return;
+                }
+                try {
+                    // Borrar archivo (sftp.cleanup.rate-limit.ops-per-second)
+                    deleteRateLimiter.acquireOperation();
+                    originLimiter.acquire();
+                    try {
+                        sftpClient.rm(result.getSourcePath());
+                    } finally {
+                        originLimiter.release();
+                    }
+                    result.setDeleted(true);
+                    log.debug("✅ Deleted: {}", result.getSourcePath());
+                    
+                } catch (InterruptedException e) {
+                    // Restaurar el flag y no lanzar más borrados
+                    Thread.currentThread().interrupt();
+                    interrupted.set(true);
+                    result.setDeleted(false);
+                    result.setErrorMessage("Cleanup interrupted before delete");
+                } catch (Exception e) {
+                    // No fallar el chunk completo, marcar como fallido
+                    if (e instanceof TransportException || e instanceof ConnectionException) {
+                        connectionBroken.set(true);
+                    }
+                    result.setDeleted(false);
+                    result.setErrorMessage(e.getMessage());
+                    log.error("❌ Failed to delete: {}", result.getSourcePath(), e);
+                }
+            }, deleteExecutor);
+            
+            futures.add(future);
+        }
+        
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        try {
+            all.get();
+        } catch (InterruptedException e) {
+            interrupted.set(true);
+        } catch (ExecutionException e) {
+            // Las tareas no lanzan: cada fallo queda en su CleanupResult
+        }
+        
+        if (interrupted.get()) {
+            // Los rm en curso terminan antes de devolver la conexión al pool
+            all.join();
+            throw new InterruptedException("Cleanup interrupted, remaining deletes cancelled");
+        }
+        
+        // Conexión caída: descartarla en lugar de devolverla al pool
+        if (connectionBroken.get()) {
+            lease.invalidate();
+        }
+    }
+}
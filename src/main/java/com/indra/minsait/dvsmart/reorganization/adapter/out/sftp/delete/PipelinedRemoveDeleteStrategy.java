@@ -0,0 +1,142 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete;
+
+import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupResult;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.DeleteStrategy;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.SshjConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import net.schmizz.concurrent.Promise;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+import net.schmizz.sshj.sftp.SFTPException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 21:52:05
+ * File: PipelinedRemoveDeleteStrategy.java
+ */
+
+/**
+ * Borrado pipelined con la API de peticiones de SFTPEngine (SSHJ), sin threads.
+ *
+ * - Envía SSH_FXP_REMOVE sin esperar respuesta hasta tener remove-window
+ *   peticiones en vuelo en el canal
+ * - Al llenarse la ventana recoge la respuesta más antigua (las respuestas se
+ *   emparejan con su CleanupResult por el request id de cada Promise)
+ * - Un STATUS distinto de OK marca solo ese archivo como fallido
+ *
+ * El throughput deja de depender de threads × RTT: una conexión mantiene la
+ * ventana llena. sftp.cleanup.rate-limit.ops-per-second sigue aplicando por
+ * petición enviada.
+ */
+@Slf4j
+@Component
+public class PipelinedRemoveDeleteStrategy implements OriginDeleteStrategy {
+
+    private final RateLimiter deleteRateLimiter;
+    private final int window;
+    private final long timeoutMs;
+
+    // Constructor manual con @Qualifier (correcto para Lombok)
+    public PipelinedRemoveDeleteStrategy(@Qualifier("cleanupDeleteRateLimiter") RateLimiter deleteRateLimiter,
+                                         SftpConfigProperties props) {
+        this.deleteRateLimiter = deleteRateLimiter;
+        this.window = Math.max(1, props.getCleanup().getRemoveWindow());
+        this.timeoutMs = props.getOrigin().getTimeout();
+    }
+
+    @Override
+    public DeleteStrategy type() {
+        return DeleteStrategy.PIPELINED;
+    }
+
+    @Override
+    public void delete(SshjConnectionPool.Lease lease, List<? extends CleanupResult> results) throws InterruptedException {
+        SFTPEngine engine = lease.sftp().getSFTPEngine();
+        Charset charset = engine.getSubsystem().getRemoteCharset();
+        Deque<PendingRemove> inFlight = new ArrayDeque<>(window);
+        boolean connectionBroken = false;
+        
+        for (CleanupResult result : results) {
+            if (inFlight.size() >= window) {
+                connectionBroken |= !complete(inFlight.poll());
+            }
+            
+            if (connectionBroken) {
+                fail(result, "SFTP channel unavailable");
+                continue;
+            }
+            
+            deleteRateLimiter.acquireOperation();
+            try {
+                Promise<Response, SFTPException> promise = 
+                    engine.request(engine.newRequest(PacketType.REMOVE).putString(result.getSourcePath(), charset));
+                inFlight.add(new PendingRemove(result, promise));
+            } catch (IOException e) {
+                connectionBroken = true;
+                fail(result, e.getMessage());
+                log.error("❌ Failed to send remove: {}", result.getSourcePath(), e);
+            }
+        }
+        
+        while (!inFlight.isEmpty()) {
+            connectionBroken |= !complete(inFlight.poll());
+        }
+        
+        // Canal caído o respuestas perdidas: no devolver la conexión al pool
+        if (connectionBroken) {
+            lease.invalidate();
+        }
+    }
+
+    /**
+     * Espera la respuesta de un REMOVE.
+     *
+     * @return false si no llegó respuesta del servidor (timeout o canal cerrado)
+     */
+    private boolean complete(PendingRemove pending) {
+        CleanupResult result = pending.result();
+        try {
+            pending.promise().retrieve(timeoutMs, TimeUnit.MILLISECONDS).ensureStatusPacketIsOK();
+            result.setDeleted(true);
+            log.debug("✅ Deleted: {}", result.getSourcePath());
+            return true;
+        } catch (SFTPException e) {
+            fail(result, e.getMessage());
+            log.error("❌ Failed to delete: {} ({})", result.getSourcePath(), e.getStatusCode());
+            // STATUS del servidor (p.ej. NO_SUCH_FILE): la conexión sigue siendo válida
+            return e.getStatusCode() != null && e.getStatusCode() != Response.StatusCode.UNKNOWN;
+        }
+    }
+
+    private static void fail(CleanupResult result, String message) {
+        result.setDeleted(false);
+        result.setErrorMessage(message);
+    }
+
+    private record PendingRemove(CleanupResult result, Promise<Response, SFTPException> promise) {
+    }
+}
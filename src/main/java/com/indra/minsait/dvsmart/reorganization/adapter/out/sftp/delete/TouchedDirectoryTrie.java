@@ -0,0 +1,164 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 22:48:20
+ * File: TouchedDirectoryTrie.java
+ */
+
+/**
+ * Trie (por segmentos de ruta) de los directorios de origen en los que el
+ * cleanup ha borrado archivos, relativo a sftp.origin.base-dir.
+ *
+ * - Los prefijos comunes se guardan una sola vez: millones de archivos en
+ *   pocas particiones ocupan lo que ocupan sus directorios
+ * - Rutas fuera de base-dir o con "." / ".." se ignoran: la poda nunca sube
+ *   por encima de base-dir (base-dir es la raíz y no se poda)
+ * - drainLevels() entrega los directorios por profundidad, del más profundo
+ *   al más superficial, y vacía el trie
+ *
+ * Se mantiene en memoria durante la ejecución (no sobrevive a un reinicio).
+ */
+@Component
+public class TouchedDirectoryTrie {
+
+    private final String baseDir;
+    private Node root = new Node();
+    private long size;
+
+    public TouchedDirectoryTrie(SftpConfigProperties props) {
+        String base = props.getOrigin().getBaseDir();
+        this.baseDir = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+
+    /**
+     * Registra el directorio padre (y sus ancestros hasta base-dir) de cada archivo
+     */
+    public synchronized void addParentsOf(Collection<String> filePaths) {
+        for (String filePath : filePaths) {
+            int lastSlash = filePath.lastIndexOf('/');
+            if (lastSlash <= baseDir.length() || !filePath.startsWith(baseDir + "/")) {
+                continue;  // Archivo directamente en base-dir o fuera de ella
+            }
+            add(filePath.substring(baseDir.length() + 1, lastSlash));
+        }
+    }
+
+    private void add(String relativeDir) {
+        String[] segments = relativeDir.split("/");
+        for (String segment : segments) {
+            if (segment.isEmpty() || ".".equals(segment) || "..".equals(segment)) {
+                return;
+            }
+        }
+        
+        Node node = root;
+        for (String segment : segments) {
+            Node child = node.children.get(segment);
+            if (child == null) {
+                child = new Node();
+                node.children.put(segment, child);
+                size++;
+            }
+            node = child;
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Directorios registrados agrupados por profundidad, del más profundo al
+     * más superficial. Vacía el trie.
+     */
+    public synchronized List<List<Directory>> drainLevels() {
+        List<List<Directory>> levels = new ArrayList<>();
+        List<Directory> current = new ArrayList<>();
+        List<Node> currentNodes = new ArrayList<>();
+
+        for (Map.Entry<String, Node> entry : root.children.entrySet()) {
+            current.add(new Directory(baseDir + "/" + entry.getKey(), null, entry.getValue().children.size()));
+            currentNodes.add(entry.getValue());
+        }
+
+        while (!current.isEmpty()) {
+            levels.add(current);
+            List<Directory> next = new ArrayList<>();
+            List<Node> nextNodes = new ArrayList<>();
+            for (int i = 0; i < current.size(); i++) {
+                Directory parent = current.get(i);
+                for (Map.Entry<String, Node> entry : currentNodes.get(i).children.entrySet()) {
+                    next.add(new Directory(parent.getPath() + "/" + entry.getKey(), parent, entry.getValue().children.size()));
+                    nextNodes.add(entry.getValue());
+                }
+            }
+            current = next;
+            currentNodes = nextNodes;
+        }
+
+        root = new Node();
+        size = 0;
+        Collections.reverse(levels);
+        return levels;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+    }
+
+    /**
+     * Directorio candidato a poda. Solo puede estar vacío si todos sus
+     * subdirectorios registrados se han eliminado antes.
+     */
+    public static final class Directory {
+
+        @Getter
+        private final String path;
+        private final Directory parent;
+        private final AtomicInteger pendingChildren;
+
+        private Directory(String path, Directory parent, int children) {
+            this.path = path;
+            this.parent = parent;
+            this.pendingChildren = new AtomicInteger(children);
+        }
+
+        public boolean hasPendingChildren() {
+            return pendingChildren.get() > 0;
+        }
+
+        /**
+         * Notifica al padre que este directorio se ha eliminado
+         */
+        public void markRemoved() {
+            if (parent != null) {
+                parent.pendingChildren.decrementAndGet();
+            }
+        }
+    }
+}
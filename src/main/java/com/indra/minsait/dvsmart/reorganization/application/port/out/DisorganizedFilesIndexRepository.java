@@ -15,6 +15,7 @@ package com.indra.minsait.dvsmart.reorganization.application.port.out;
 
 import com.indra.minsait.dvsmart.reorganization.domain.model.ArchivoLegacy;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -25,4 +26,10 @@ import java.util.List;
 public interface DisorganizedFilesIndexRepository {
     List<ArchivoLegacy> findAll();
     long count();
+
+    /**
+     * Prefijos distintos de idUnico (de longitud prefixLength) de los archivos
+     * pendientes de reorganizar, ordenados. El stream debe cerrarse.
+     */
+    Stream<String> streamPendingIdUnicoPrefixes(int prefixLength);
 }
@@ -32,4 +32,25 @@ public interface SftpDestinationRepository {
     void transferTo(String remotePath, InputStream inputStream);
 
     void createDirectories(String path);  // Mantenido por si se necesita separado
+
+    /**
+     * Crea el directorio indicado (y sus padres) si no existe.
+     */
+    void createDirectory(String directoryPath);
+
+    /**
+     * Escribe el contenido del InputStream a partir de offset en un archivo
+     * ya existente (transferencia por rangos; no trunca ni crea).
+     */
+    void writeRange(String remotePath, long offset, InputStream inputStream);
+
+    /**
+     * Tamaño actual del archivo remoto en bytes
+     */
+    long size(String remotePath);
+
+    /**
+     * Borra el archivo remoto (p.ej. un destino parcial tras una transferencia fallida)
+     */
+    void delete(String remotePath);
 }
@@ -25,4 +25,14 @@ public interface SftpOriginRepository {
 	
     InputStream readFile(String path);
 
+    /**
+     * Lee solo el rango [offset, offset + length) del archivo
+     */
+    InputStream readRange(String path, long offset, long length);
+
+    /**
+     * Tamaño actual del archivo en bytes
+     */
+    long size(String path);
+
 }
@@ -0,0 +1,46 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.application.port.out;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 15:52:40
+ * File: SftpServerSideRepository.java
+ */
+
+/**
+ * Puerto para operaciones ejecutadas en el propio servidor SFTP cuando origen
+ * y destino comparten almacenamiento (los bytes no pasan por la JVM).
+ */
+public interface SftpServerSideRepository {
+
+    /**
+     * Indica si origen y destino permiten operar en el servidor
+     */
+    boolean isAvailable();
+
+    /**
+     * Copia el archivo en el servidor.
+     * 
+     * @return false si no fue posible (el llamante debe copiar en streaming)
+     */
+    boolean copy(String sourcePath, String destinationPath);
+
+    /**
+     * Mueve (renombra) el archivo en el servidor: sin copia de datos ni borrado posterior.
+     * 
+     * @return false si no fue posible (el archivo sigue en origen)
+     */
+    boolean move(String sourcePath, String destinationPath);
+}
@@ -26,8 +26,13 @@ import java.time.Instant;
 @Data
 @Builder
 public class ArchivoLegacy {
+    private String id;          // _id del documento en files_index
     private String idUnico;
     private String rutaOrigen;
     private String nombre;
     private Instant mtime;
+    private Long tamano;        // fileSize en files_index (bytes)
+    private String rutaDestino; // Calculada una vez en hashPartitionProcessor
+    private String claimOwner;  // reorg_owner del claim (null sin claim/lease)
+    private String claimToken;  // reorg_claimToken del claim (null sin claim/lease)
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 09:12:40
+ * File: ReorganizationResult.java
+ */
+
+/**
+ * Resultado de la transferencia de un archivo hacia el SFTP destino.
+ *
+ * Cada transferencia del chunk produce su propio resultado, de forma que
+ * un fallo (o un archivo lento) no condiciona al resto de archivos.
+ *
+ * @author hahuaranga@indracompany.com
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorganizationResult {
+
+    /**
+     * _id del documento en files_index (clave para el bulk update)
+     */
+    private String id;
+
+    /**
+     * ID único del archivo (hash SHA-256)
+     */
+    private String idUnico;
+
+    /**
+     * Ruta de origen transferida
+     */
+    private String sourcePath;
+
+    /**
+     * Ruta final en SFTP destino (null si falló)
+     */
+    private String destinationPath;
+
+    /**
+     * Indica si la transferencia fue exitosa
+     */
+    private boolean completed;
+
+    /**
+     * Indica si el archivo se movió (rename): ya no existe en origen
+     */
+    private boolean moved;
+
+    /**
+     * Duración de la transferencia en milisegundos
+     */
+    private long durationMs;
+
+    /**
+     * Mensaje de error si falló la transferencia
+     */
+    private String errorMessage;
+
+    /**
+     * Owner y token del claim con el que se leyó (null sin claim/lease):
+     * el bulk update solo aplica si el claim sigue siendo nuestro
+     */
+    private String claimOwner;
+    private String claimToken;
+
+    /**
+     * Factory method para resultado exitoso
+     */
+    public static ReorganizationResult success(ArchivoLegacy archivo, String destinationPath, long durationMs) {
+        return ReorganizationResult.builder()
+            .id(archivo.getId())
+            .idUnico(archivo.getIdUnico())
+            .sourcePath(archivo.getRutaOrigen())
+            .destinationPath(destinationPath)
+            .claimOwner(archivo.getClaimOwner())
+            .claimToken(archivo.getClaimToken())
+            .completed(true)
+            .durationMs(durationMs)
+            .build();
+    }
+
+    /**
+     * Factory method para archivo movido (rename en el servidor)
+     */
+    public static ReorganizationResult moved(ArchivoLegacy archivo, String destinationPath, long durationMs) {
+        ReorganizationResult result = success(archivo, destinationPath, durationMs);
+        result.setMoved(true);
+        return result;
+    }
+
+    /**
+     * Factory method para resultado fallido
+     */
+    public static ReorganizationResult failure(ArchivoLegacy archivo, long durationMs, String error) {
+        return ReorganizationResult.builder()
+            .id(archivo.getId())
+            .idUnico(archivo.getIdUnico())
+            .sourcePath(archivo.getRutaOrigen())
+            .claimOwner(archivo.getClaimOwner())
+            .claimToken(archivo.getClaimToken())
+            .completed(false)
+            .durationMs(durationMs)
+            .errorMessage(error)
+            .build();
+    }
+}
@@ -15,7 +15,6 @@ package com.indra.minsait.dvsmart.reorganization.domain.service;
 
 import com.indra.minsait.dvsmart.reorganization.domain.model.ArchivoLegacy;
 import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -25,28 +24,63 @@ import org.springframework.stereotype.Service;
  * File: FileReorganizationService.java
  */
 
+/**
+ * Calcula rutas destino por hash partitioning.
+ * 
+ * La geometría de la partición (profundidad, caracteres por nivel) se lee una
+ * sola vez al crear el servicio; cada ruta se construye en un único
+ * StringBuilder con capacidad exacta (sin String.format ni substring).
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class FileReorganizationService {
 
-	private final SftpConfigProperties props;
+    private final int partitionDepth;
+    private final int charsPerLevel;
+    private final int prefixLength;
+
+    public FileReorganizationService(SftpConfigProperties props) {
+        this.partitionDepth = props.getHashPartitionig().getPartitionDepth();
+        this.charsPerLevel = props.getHashPartitionig().getCharsPerLevel();
+        this.prefixLength = partitionDepth * charsPerLevel;
+        log.info("Hash partitioning layout: depth={}, charsPerLevel={}", partitionDepth, charsPerLevel);
+    }
 
     public String calculateDestinationPath(ArchivoLegacy archivo, String baseDir) {
-    	String partitionPath = buildPartitionPath(archivo.getIdUnico());
-        return String.format("%s/%s/%s", baseDir, partitionPath, archivo.getNombre());
+        String nombre = archivo.getNombre();
+        StringBuilder path = new StringBuilder(partitionDirectoryLength(baseDir) + 1 + nombre.length());
+        appendPartitionDirectory(path, baseDir, archivo.getIdUnico());
+        return path.append('/').append(nombre).toString();
     }
 
-    private String buildPartitionPath(String hash) {
-        StringBuilder path = new StringBuilder();
-        for (int i = 0; i < props.getHashPartitionig().getPartitionDepth(); i++) {
-            int start = i * props.getHashPartitionig().getCharsPerLevel();
-            int end = Math.min(start + props.getHashPartitionig().getCharsPerLevel(), hash.length());
-            if (i > 0) {
-                path.append('/');
-            }
-            path.append(hash.substring(start, end));
-        }
+    /**
+     * Directorio de partición correspondiente a un prefijo de idUnico
+     * (al menos partitionPrefixLength() caracteres).
+     */
+    public String calculatePartitionDirectory(String idUnicoPrefix, String baseDir) {
+        StringBuilder path = new StringBuilder(partitionDirectoryLength(baseDir));
+        appendPartitionDirectory(path, baseDir, idUnicoPrefix);
         return path.toString();
     }
+
+    /**
+     * Número de caracteres de idUnico que determinan la partición destino
+     */
+    public int partitionPrefixLength() {
+        return prefixLength;
+    }
+
+    private int partitionDirectoryLength(String baseDir) {
+        // baseDir + "/" por nivel + caracteres del prefijo
+        return baseDir.length() + partitionDepth + prefixLength;
+    }
+
+    private void appendPartitionDirectory(StringBuilder path, String baseDir, String hash) {
+        path.append(baseDir);
+        for (int i = 0; i < partitionDepth; i++) {
+            int start = i * charsPerLevel;
+            int end = Math.min(start + charsPerLevel, hash.length());
+            path.append('/').append(hash, start, end);
+        }
+    }
 }
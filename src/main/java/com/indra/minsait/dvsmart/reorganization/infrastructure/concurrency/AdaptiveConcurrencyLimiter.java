@@ -0,0 +1,142 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.sshd.common.SshException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 19:34:15
+ * File: AdaptiveConcurrencyLimiter.java
+ */
+
+/**
+ * Limitador AIMD (additive increase / multiplicative decrease) por endpoint.
+ *
+ * Acumula latencia y fallos de las operaciones en ventanas de windowMs y, al
+ * cerrar cada ventana:
+ * - Timeouts o errores SSH en la ventana: limit = limit * backoffRatio
+ * - Latencia media > baseline * latencyTolerance: limit = limit * backoffRatio
+ * - Throughput igual o mejor que la ventana anterior: limit + 1
+ * - En otro caso se mantiene
+ *
+ * La baseline es una media móvil lenta de la latencia de las ventanas sanas,
+ * de modo que el tamaño variable de los archivos se promedia. El límite se
+ * mueve siempre dentro de [minLimit, maxLimit].
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter extends ConcurrencyLimiter {
+
+    private static final double BASELINE_ALPHA = 0.1;
+    private static final double THROUGHPUT_TOLERANCE = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    // Estado de la ventana actual (protegido por this)
+    private long windowStart = System.nanoTime();
+    private int windowSamples;
+    private long windowLatencyNanos;
+    private int windowDrops;
+
+    private double baselineLatencyNanos;
+    private double lastThroughput;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, double latencyTolerance,
+                                      long windowMs, int minWindowSamples) {
+        super(name, Math.max(minLimit, Math.min(initialLimit, maxLimit)));
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.windowNanos = windowMs * 1_000_000L;
+        this.minWindowSamples = Math.max(1, minWindowSamples);
+    }
+
+    @Override
+    public synchronized void onSuccess(long latencyNanos) {
+        windowSamples++;
+        windowLatencyNanos += latencyNanos;
+        evaluateIfWindowClosed();
+    }
+
+    @Override
+    public synchronized void onFailure(Throwable error) {
+        if (isOverloadSignal(error)) {
+            windowDrops++;
+        }
+        evaluateIfWindowClosed();
+    }
+
+    private void evaluateIfWindowClosed() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed < windowNanos || (windowSamples < minWindowSamples && windowDrops == 0)) {
+            return;
+        }
+
+        int limit = getLimit();
+        double throughput = windowSamples * 1_000_000_000d / elapsed;
+        double avgLatency = windowSamples > 0 ? (double) windowLatencyNanos / windowSamples : 0;
+        int newLimit = limit;
+
+        if (windowDrops > 0) {
+            newLimit = decrease(limit);
+            log.info("⬇️ {} limit {} -> {} ({} timeouts/errors in window)", getName(), limit, newLimit, windowDrops);
+        } else if (baselineLatencyNanos > 0 && avgLatency > baselineLatencyNanos * latencyTolerance) {
+            newLimit = decrease(limit);
+            log.info("⬇️ {} limit {} -> {} (latency {} ms, baseline {} ms)", getName(), limit, newLimit,
+                Math.round(avgLatency / 1_000_000), Math.round(baselineLatencyNanos / 1_000_000));
+        } else {
+            baselineLatencyNanos = baselineLatencyNanos == 0
+                ? avgLatency
+                : baselineLatencyNanos + BASELINE_ALPHA * (avgLatency - baselineLatencyNanos);
+            if (throughput >= lastThroughput * THROUGHPUT_TOLERANCE) {
+                newLimit = Math.min(maxLimit, limit + 1);
+            }
+        }
+
+        setLimit(newLimit);
+        lastThroughput = throughput;
+        windowStart = now;
+        windowSamples = 0;
+        windowLatencyNanos = 0;
+        windowDrops = 0;
+    }
+
+    private int decrease(int limit) {
+        return Math.max(minLimit, (int) Math.floor(limit * backoffRatio));
+    }
+
+    /**
+     * Timeouts y errores de conexión/canal SSH (p.ej. MaxSessions) indican
+     * saturación; un archivo inexistente o sin permisos no
+     */
+    private static boolean isOverloadSignal(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof TimeoutException || t instanceof SshException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 15:10:26
+ * File: ConcurrencyLimiter.java
+ */
+
+/**
+ * Límite de operaciones simultáneas contra un endpoint (SFTP origen/destino).
+ *
+ * Con hilos virtuales el número de threads deja de limitar la concurrencia:
+ * cada operación adquiere un permiso antes de usar una sesión del pool, de
+ * modo que como máximo hay "limit" operaciones en curso y el resto espera
+ * aparcada (sin consumir threads de plataforma).
+ *
+ * El límite puede cambiarse en caliente con setLimit.
+ */
+@Slf4j
+public class ConcurrencyLimiter {
+
+    @Getter
+    private final String name;
+    private final ResizableSemaphore semaphore;
+    private int limit;
+
+    public ConcurrencyLimiter(String name, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be >= 1: " + name);
+        }
+        this.name = name;
+        this.limit = limit;
+        this.semaphore = new ResizableSemaphore(limit);
+    }
+
+    public void acquire() throws InterruptedException {
+        semaphore.acquire();
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Operaciones en curso (permisos adquiridos)
+     */
+    public synchronized int getInFlight() {
+        return Math.max(0, limit - semaphore.availablePermits());
+    }
+
+    /**
+     * Cambia el límite. Al reducirlo, las operaciones en curso terminan
+     * normalmente y los nuevos permisos se conceden cuando bajan del límite.
+     */
+    public synchronized void setLimit(int newLimit) {
+        if (newLimit < 1 || newLimit == limit) {
+            return;
+        }
+        int delta = newLimit - limit;
+        if (delta > 0) {
+            semaphore.release(delta);
+        } else {
+            semaphore.reducePermits(-delta);
+        }
+        log.debug("Concurrency limit for {}: {} -> {}", name, limit, newLimit);
+        limit = newLimit;
+    }
+
+    /**
+     * Resultado de una operación completada con permiso (latencia en nanos).
+     * Sin efecto en el limitador fijo; ver AdaptiveConcurrencyLimiter
+     */
+    public void onSuccess(long latencyNanos) {
+    }
+
+    /**
+     * Operación fallida con permiso. Sin efecto en el limitador fijo
+     */
+    public void onFailure(Throwable error) {
+    }
+
+    /**
+     * Semaphore con reducePermits accesible
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.Adaptive;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 15:18:03
+ * File: ConcurrencyLimiterConfig.java
+ */
+
+/**
+ * Limitadores de concurrencia por endpoint SFTP, dimensionados con el pool de sesiones
+ * (sftp.origin.pool.size / sftp.dest.pool.size).
+ *
+ * Con sftp.*.adaptive.enabled=true el limitador es AIMD y ajusta el límite en
+ * caliente entre adaptive.min-limit y pool.size, partiendo de adaptive.initial-limit
+ * (por debajo del máximo, para que haya margen de subida).
+ *
+ * Métricas por endpoint: sftp.concurrency.limit y sftp.concurrency.in-flight
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class ConcurrencyLimiterConfig {
+
+    private final SftpConfigProperties sftpProps;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Bean(name = "originConcurrencyLimiter")
+    ConcurrencyLimiter originConcurrencyLimiter() {
+        return limiter("sftp-origin", "origin", sftpProps.getOrigin().getPool().getSize(), sftpProps.getOrigin().getAdaptive());
+    }
+
+    @Bean(name = "destinationConcurrencyLimiter")
+    ConcurrencyLimiter destinationConcurrencyLimiter() {
+        return limiter("sftp-dest", "dest", sftpProps.getDest().getPool().getSize(), sftpProps.getDest().getAdaptive());
+    }
+
+    private ConcurrencyLimiter limiter(String name, String endpoint, int poolSize, Adaptive adaptive) {
+        ConcurrencyLimiter limiter;
+        if (adaptive.isEnabled()) {
+            int initialLimit = adaptive.getInitialLimit() > 0
+                ? adaptive.getInitialLimit()
+                : Math.max(adaptive.getMinLimit(), poolSize / 2);
+            log.info("Adaptive concurrency enabled for {} (min: {}, initial: {}, max: {})",
+                name, adaptive.getMinLimit(), initialLimit, poolSize);
+            limiter = new AdaptiveConcurrencyLimiter(name, initialLimit, adaptive.getMinLimit(), poolSize,
+                adaptive.getBackoffRatio(), adaptive.getLatencyTolerance(),
+                adaptive.getWindowMs(), adaptive.getMinWindowSamples());
+        } else {
+            limiter = new ConcurrencyLimiter(name, poolSize);
+        }
+
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("sftp.concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+                .tag("endpoint", endpoint).description("Operaciones simultaneas permitidas").register(registry);
+            Gauge.builder("sftp.concurrency.in-flight", limiter, ConcurrencyLimiter::getInFlight)
+                .tag("endpoint", endpoint).description("Operaciones en curso").register(registry);
+        });
+        return limiter;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 20:09:48
+ * File: RateLimiter.java
+ */
+
+/**
+ * Límites de ritmo de un camino SFTP (lecturas origen, escrituras destino, borrados):
+ * operaciones/s y bytes/s, cada uno con su TokenBucket (0 = sin límite).
+ *
+ * - acquireOperation: antes de abrir cada archivo / borrar
+ * - throttle: envuelve el stream de datos y paga los bytes según se leen
+ */
+@Slf4j
+public class RateLimiter {
+
+    @Getter
+    private final String name;
+    private final TokenBucket operations;
+    private final TokenBucket bytes;
+
+    public RateLimiter(String name, long opsPerSecond, long bytesPerSecond) {
+        this.name = name;
+        this.operations = new TokenBucket(opsPerSecond);
+        this.bytes = new TokenBucket(bytesPerSecond);
+    }
+
+    public void acquireOperation() throws InterruptedException {
+        operations.acquire(1);
+    }
+
+    /**
+     * Varias operaciones de una vez (p.ej. un borrado en bloque por exec)
+     */
+    public void acquireOperations(int count) throws InterruptedException {
+        operations.acquire(count);
+    }
+
+    /**
+     * Stream que no supera bytesPerSecond (sin efecto si el límite es 0)
+     */
+    public InputStream throttle(InputStream in) {
+        return new ThrottledInputStream(in);
+    }
+
+    public long getOpsPerSecond() {
+        return operations.getRate();
+    }
+
+    public long getBytesPerSecond() {
+        return bytes.getRate();
+    }
+
+    public void setOpsPerSecond(long opsPerSecond) {
+        operations.setRate(opsPerSecond);
+        log.info("Rate limit {}: {} ops/s", name, opsPerSecond);
+    }
+
+    public void setBytesPerSecond(long bytesPerSecond) {
+        bytes.setRate(bytesPerSecond);
+        log.info("Rate limit {}: {} bytes/s", name, bytesPerSecond);
+    }
+
+    private class ThrottledInputStream extends FilterInputStream {
+
+        ThrottledInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                pay(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                pay(read);
+            }
+            return read;
+        }
+
+        private void pay(int count) throws IOException {
+            try {
+                bytes.acquire(count);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for " + name + " bandwidth");
+            }
+        }
+    }
+}
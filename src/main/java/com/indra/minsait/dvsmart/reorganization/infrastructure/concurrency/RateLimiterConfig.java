@@ -0,0 +1,58 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.RateLimit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 20:15:36
+ * File: RateLimiterConfig.java
+ */
+
+/**
+ * Límites de ritmo (ops/s y bytes/s) por camino SFTP:
+ * - originReadRateLimiter:      lecturas de origen (sftp.origin.rate-limit.*)
+ * - destinationWriteRateLimiter: escrituras en destino (sftp.dest.rate-limit.*)
+ * - cleanupDeleteRateLimiter:   borrados en origen (sftp.cleanup.rate-limit.ops-per-second)
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RateLimiterConfig {
+
+    private final SftpConfigProperties sftpProps;
+
+    @Bean(name = "originReadRateLimiter")
+    RateLimiter originReadRateLimiter() {
+        return rateLimiter("origin-read", sftpProps.getOrigin().getRateLimit());
+    }
+
+    @Bean(name = "destinationWriteRateLimiter")
+    RateLimiter destinationWriteRateLimiter() {
+        return rateLimiter("dest-write", sftpProps.getDest().getRateLimit());
+    }
+
+    @Bean(name = "cleanupDeleteRateLimiter")
+    RateLimiter cleanupDeleteRateLimiter() {
+        return rateLimiter("cleanup-delete", sftpProps.getCleanup().getRateLimit());
+    }
+
+    private static RateLimiter rateLimiter(String name, RateLimit limit) {
+        return new RateLimiter(name, limit.getOpsPerSecond(), limit.getBytesPerSecond());
+    }
+}
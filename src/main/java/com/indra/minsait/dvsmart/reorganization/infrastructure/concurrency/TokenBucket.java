@@ -0,0 +1,81 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 20:02:31
+ * File: TokenBucket.java
+ */
+
+/**
+ * Token bucket bloqueante: como máximo "rate" tokens por segundo, con ráfagas
+ * de hasta un segundo de tokens acumulados.
+ *
+ * acquire reserva los tokens aunque no haya suficientes (el saldo queda en
+ * negativo) y espera el tiempo que tarda en pagarse la deuda, así peticiones
+ * mayores que la capacidad también respetan el ritmo medio.
+ *
+ * rate = 0 desactiva el límite. El ritmo puede cambiarse en caliente con setRate.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private long rate;
+    private double available;
+    private long lastRefill = System.nanoTime();
+
+    public TokenBucket(long rate) {
+        setRate(rate);
+    }
+
+    public void acquire(long tokens) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            if (rate <= 0) {
+                return;
+            }
+            refill();
+            available -= tokens;
+            waitNanos = available >= 0 ? 0 : (long) (-available * NANOS_PER_SECOND / rate);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized long getRate() {
+        return rate;
+    }
+
+    public synchronized void setRate(long newRate) {
+        refill();
+        if (rate <= 0 && newRate > 0) {
+            available = newRate;  // Hasta ahora sin límite: empezar con el cubo lleno
+        }
+        rate = Math.max(0, newRate);
+        available = Math.min(available, rate);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (rate > 0) {
+            available = Math.min(rate, available + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        }
+        lastRefill = now;
+    }
+}
@@ -32,4 +32,56 @@ public class BatchConfigProperties {
     private int queueCapacity = 1000;
     private int skipLimit = 5;
     private int retryLimit = 3;
+    private int transferConcurrency = 20;
+    private int cleanupConcurrency = 10;
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private boolean prepareDestinationTree = false;
+    private boolean sftpWarmUp = false;
+    private PartitionMode partitionMode = PartitionMode.NONE;
+    private int partitionGridSize = 4;
+    private RemotePartitioning remotePartitioning = new RemotePartitioning();
+    private Claim claim = new Claim();
+
+    /**
+     * Tipo de threads de los executors del pipeline (processor async, transferencias, borrados)
+     */
+    public enum ExecutionMode {
+        PLATFORM, // Pools de threads de plataforma de tamaño fijo
+        VIRTUAL   // Un hilo virtual por tarea; concurrencia limitada por el pool SFTP
+    }
+
+    /**
+     * Modo de ejecución del step de reorganización
+     */
+    public enum PartitionMode {
+        NONE,   // Un único cursor (reorganizeStep)
+        LOCAL,  // Rangos de _id en threads locales (reorganizePartitionedStep)
+        REMOTE  // Rangos de _id enviados a workers (reorganizeRemotePartitionedStep)
+    }
+
+    /**
+     * Transporte del canal de particiones remotas
+     */
+    public enum RemoteTransport {
+        LOCAL,  // ExecutorChannel en memoria (misma JVM)
+        JDBC    // Cola persistente en PostgreSQL (varios pods)
+    }
+
+    @Getter
+    @Setter
+    public static class RemotePartitioning {
+        private RemoteTransport transport = RemoteTransport.LOCAL;
+        private boolean workerEnabled = true;
+        private int workerConcurrency = 4;
+        private long pollIntervalMs = 5000;
+        private long timeoutMs = -1;
+    }
+
+    @Getter
+    @Setter
+    public static class Claim {
+        private boolean enabled = false;
+        private int batchSize = 500;
+        private long leaseSeconds = 900;
+    }
 }
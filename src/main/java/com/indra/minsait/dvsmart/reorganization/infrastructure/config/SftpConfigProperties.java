@@ -31,6 +31,8 @@ public class SftpConfigProperties {
     private Origin origin = new Origin();
     private Destination dest = new Destination();
     private HashPartitioning hashPartitionig = new HashPartitioning();
+    private Transfer transfer = new Transfer();
+    private Cleanup cleanup = new Cleanup();
 
     @Getter
     @Setter
@@ -48,7 +50,11 @@ public class SftpConfigProperties {
         private String password;
         private String baseDir;
         private Pool pool = new Pool();
+        private Adaptive adaptive = new Adaptive();
+        private RateLimit rateLimit = new RateLimit();
         private int timeout = 30000;
+        private int bufferSize = 32768;
+        private int pipelineWindow = 16;
     }
     
     @Getter
@@ -60,12 +66,105 @@ public class SftpConfigProperties {
         private String password;
         private String baseDir;
         private Pool pool = new Pool();
+        private Adaptive adaptive = new Adaptive();
+        private RateLimit rateLimit = new RateLimit();
         private int timeout = 30000;
+        private int directoryCacheSize = 100000;
+        private int bufferSize = 32768;
+        private int pipelineWindow = 16;
+    }
+    
+    @Getter
+    @Setter
+    public static class Transfer {
+        private TransferMode mode = TransferMode.COPY;
+        private ServerSideCopy serverSideCopy = ServerSideCopy.AUTO;
+        private boolean execCopyEnabled = true;
+        private int bufferPoolMaxBuffers = 256;
+        private long rangeParallelThresholdBytes = 536870912L;
+        private int rangeParallelParts = 4;
+    }
+    
+    /**
+     * Operación de reorganización por archivo
+     */
+    public enum TransferMode {
+        COPY, // Copia a destino; cleanup-origin-step borra después el origen
+        MOVE  // Rename en el servidor (requiere server-side-copy disponible); sin cleanup posterior
+    }
+    
+    /**
+     * Copia en el servidor (sin pasar los bytes por la JVM)
+     */
+    public enum ServerSideCopy {
+        AUTO,     // Si origen y destino son el mismo host, puerto y usuario
+        ENABLED,  // Siempre (p.ej. hosts distintos sobre el mismo filesystem)
+        DISABLED  // Siempre streaming
     }
     
     @Getter
     @Setter
     public static class Pool {
-        private int size = 10;
+        private int size = 10;                          // max-total (y max-idle)
+        private int minIdle = 2;
+        private long maxWaitMs = 30000;
+        private boolean testOnBorrow = true;
+        private boolean testWhileIdle = true;
+        private long timeBetweenEvictionRunsMs = 60000;
+        private long minEvictableIdleTimeMs = 300000;
+        private long keepaliveIntervalMs = 30000;       // 0 = sin keepalive SSH
+        private int channelsPerConnection = 4;          // canales SFTP por conexion SSH
+    }
+
+    /**
+     * Control AIMD de la concurrencia por endpoint (máximo: pool.size)
+     */
+    @Getter
+    @Setter
+    public static class Adaptive {
+        private boolean enabled = false;
+        private int minLimit = 2;
+        private int initialLimit = 0;           // 0 = pool.size / 2 (nunca por debajo de min-limit)
+        private double backoffRatio = 0.7;      // reduccion multiplicativa
+        private double latencyTolerance = 2.0;  // latencia media / baseline que dispara la reduccion
+        private long windowMs = 1000;
+        private int minWindowSamples = 10;
+    }
+
+    /**
+     * Límites token-bucket (0 = sin límite); ajustables en caliente vía REST
+     */
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private long opsPerSecond = 0;
+        private long bytesPerSecond = 0;
+    }
+
+    /**
+     * Estrategia de borrado en origen
+     */
+    public enum DeleteStrategy {
+        PARALLEL_RM, // rm bloqueante desde cleanupDeleteExecutor
+        PIPELINED,   // REMOVE asincronos con ventana sobre SFTPEngine, sin threads
+        EXEC         // Un comando remoto (xargs -0 rm -f) por chunk; requiere exec
+    }
+
+    /**
+     * Borrado en origen (cleanup-origin-step)
+     */
+    @Getter
+    @Setter
+    public static class Cleanup {
+        private RateLimit rateLimit = new RateLimit();
+        private DeleteStrategy deleteStrategy = DeleteStrategy.PARALLEL_RM;
+        private int removeWindow = 256;                 // REMOVE en vuelo por canal (PIPELINED)
+        private long execTimeoutMs = 300000;            // espera maxima del comando remoto (EXEC)
+        private boolean pruneEmptyDirectories = false;  // rmdir bottom-up de directorios vaciados
+        private int connections = 2;                    // conexiones SSHJ persistentes (pool)
+        private long maxWaitMs = 30000;
+        private long keepaliveIntervalMs = 30000;       // 0 = sin keepalive SSH
+        private long timeBetweenEvictionRunsMs = 60000;
+        private long minEvictableIdleTimeMs = 300000;
     }
 }
@@ -0,0 +1,254 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.sftp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.keyverifier.AcceptAllServerKeyVerifier;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClientFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.integration.file.remote.session.SessionFactory;
+import org.springframework.integration.sftp.session.SftpSession;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 18:41:27
+ * File: MultiplexedSftpSessionFactory.java
+ */
+
+/**
+ * SessionFactory SFTP que multiplexa varios canales SFTP sobre cada conexión SSH.
+ *
+ * - Cada getSession() abre un canal (subsistema sftp) nuevo en una conexión
+ *   con hueco (menos de channelsPerConnection canales abiertos)
+ * - Si todas están llenas abre otra conexión SSH (handshake + auth solo entonces)
+ * - Al cerrar la sesión se cierra solo el canal y se libera el hueco: la
+ *   conexión SSH sigue abierta para los demás canales (invalidaciones y
+ *   evicciones del pool no cortan transferencias en curso)
+ * - Las conexiones caídas se descartan en la siguiente reserva y se cierran al
+ *   liberarse su último canal; las sanas solo se cierran en destroy()
+ *
+ * Con channelsPerConnection=1 equivale a una conexión por sesión. Conviene no
+ * superar MaxSessions del sshd remoto (OpenSSH: 10 por defecto).
+ */
+@Slf4j
+public class MultiplexedSftpSessionFactory implements SessionFactory<SftpClient.DirEntry>, DisposableBean {
+
+    private final String endpoint;
+    private final String host;
+    private final int port;
+    private final String user;
+    private final String password;
+    private final Duration timeout;
+    private final int channelsPerConnection;
+    private final SshClient sshClient;
+
+    private final List<Connection> connections = new ArrayList<>();
+
+    public MultiplexedSftpSessionFactory(String endpoint, String host, int port, String user, String password,
+                                         int timeoutMs, boolean allowUnknownKeys, long keepaliveIntervalMs,
+                                         int channelsPerConnection) {
+        this.endpoint = endpoint;
+        this.host = host;
+        this.port = port;
+        this.user = user;
+        this.password = password;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.channelsPerConnection = Math.max(1, channelsPerConnection);
+
+        this.sshClient = SshClient.setUpDefaultClient();
+        if (allowUnknownKeys) {
+            sshClient.setServerKeyVerifier(AcceptAllServerKeyVerifier.INSTANCE);
+        }
+        if (keepaliveIntervalMs > 0) {
+            CoreModuleProperties.HEARTBEAT_INTERVAL.set(sshClient, Duration.ofMillis(keepaliveIntervalMs));
+        }
+        sshClient.start();
+    }
+
+    @Override
+    public SftpSession getSession() {
+        Connection connection = reserveChannel();
+        try {
+            SftpClient client = SftpClientFactory.instance().createSftpClient(connection.clientSession());
+            return new MultiplexedSftpSession(client, connection);
+        } catch (IOException | RuntimeException e) {
+            connection.release();
+            throw new IllegalStateException("Failed to open SFTP channel (" + endpoint + ", " + host + ":" + port + ")", e);
+        }
+    }
+
+    /**
+     * Número de conexiones SSH abiertas (o abriéndose)
+     */
+    public synchronized int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void destroy() {
+        List<Connection> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<>(connections);
+            connections.clear();
+        }
+        toClose.forEach(Connection::close);
+        sshClient.stop();
+    }
+
+    /**
+     * Reserva un hueco de canal en una conexión existente o en una nueva.
+     * La conexión se establece fuera del lock (ver Connection.clientSession)
+     */
+    private synchronized Connection reserveChannel() {
+        connections.removeIf(connection -> {
+            if (!connection.isBroken()) {
+                return false;
+            }
+            if (connection.channels == 0) {
+                connection.closeBroken();
+            }
+            return true;
+        });
+
+        for (Connection connection : connections) {
+            if (connection.channels < channelsPerConnection) {
+                connection.channels++;
+                return connection;
+            }
+        }
+
+        Connection connection = new Connection();
+        connection.channels = 1;
+        connections.add(connection);
+        return connection;
+    }
+
+    private synchronized void releaseChannel(Connection connection) {
+        connection.channels--;
+        if (connection.channels == 0 && connection.isBroken()) {
+            connections.remove(connection);
+            connection.closeBroken();
+        }
+    }
+
+    private synchronized void discard(Connection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Conexión SSH compartida por hasta channelsPerConnection canales SFTP
+     */
+    private class Connection {
+
+        // Protegido por el lock de la factoría
+        private int channels;
+
+        private ClientSession session;
+        private volatile boolean failed;
+
+        /**
+         * Conecta y autentica la primera vez; el resto de threads que reservaron
+         * esta conexión esperan aquí en lugar de abrir otra
+         */
+        synchronized ClientSession clientSession() throws IOException {
+            if (session == null) {
+                if (failed) {
+                    throw new IOException("SSH connection failed previously");
+                }
+                try {
+                    ClientSession clientSession = sshClient.connect(user, host, port).verify(timeout).getSession();
+                    clientSession.addPasswordIdentity(password);
+                    clientSession.auth().verify(timeout);
+                    session = clientSession;
+                    log.debug("SSH connection opened ({}, {}:{})", endpoint, host, port);
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                    discard(this);
+                    throw e;
+                }
+            }
+            return session;
+        }
+
+        void release() {
+            releaseChannel(this);
+        }
+
+        boolean isBroken() {
+            ClientSession current = session;
+            return failed || (current != null && !current.isOpen());
+        }
+
+        /**
+         * Cierre inmediato (sin esperar al cierre ordenado) de una conexión caída
+         */
+        void closeBroken() {
+            ClientSession current = session;
+            if (current != null) {
+                current.close(true);
+            }
+        }
+
+        synchronized void close() {
+            if (session != null) {
+                try {
+                    session.close();
+                } catch (IOException e) {
+                    log.debug("Error closing SSH connection ({})", endpoint, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sesión sobre un canal propio: al cerrarla se cierra el canal y se libera el hueco.
+     *
+     * Se crea como cliente compartido y close() se redefine: SftpSession.close() con
+     * isSharedClient=false cerraría también la ClientSession que usan los demás canales.
+     */
+    private static class MultiplexedSftpSession extends SftpSession {
+
+        private final Connection connection;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        MultiplexedSftpSession(SftpClient client, Connection connection) {
+            super(client, true);
+            this.connection = connection;
+        }
+
+        @Override
+        public void close() {
+            try {
+                // Solo el canal SFTP; la conexión SSH la gestiona la factoría
+                getClientInstance().close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to close an SFTP channel", e);
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    connection.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.sftp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.integration.file.remote.session.Session;
+import org.springframework.integration.file.remote.session.SessionFactory;
+import org.springframework.integration.sftp.session.SftpSession;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 18:02:44
+ * File: PooledSftpSessionFactory.java
+ */
+
+/**
+ * SessionFactory SFTP respaldado por un pool commons-pool2 (sustituye a CachingSessionFactory).
+ * Cada sesión del pool es un canal SFTP de MultiplexedSftpSessionFactory.
+ *
+ * - min-idle / max-total / max-wait configurables
+ * - Validación al prestar (test-on-borrow) y en reposo (test-while-idle)
+ * - Evicción de sesiones inactivas
+ * - Métricas Micrometer por endpoint:
+ *   sftp.pool.active, sftp.pool.idle, sftp.pool.waiters (gauges),
+ *   sftp.pool.borrow.wait (timer), sftp.pool.create.failures (counter)
+ *
+ * La sesión devuelta por getSession() vuelve al pool al cerrarla; si quedó
+ * marcada como dirty o cerrada se invalida y el pool crea otra.
+ */
+@Slf4j
+public class PooledSftpSessionFactory implements SessionFactory<SftpClient.DirEntry>, DisposableBean {
+
+    private final String endpoint;
+    private final MultiplexedSftpSessionFactory targetFactory;
+    private final GenericObjectPool<SftpSession> pool;
+
+    private Timer borrowWaitTimer;
+    private Counter createFailures;
+
+    public PooledSftpSessionFactory(String endpoint,
+                                    MultiplexedSftpSessionFactory targetFactory,
+                                    GenericObjectPoolConfig<SftpSession> poolConfig) {
+        this.endpoint = endpoint;
+        this.targetFactory = targetFactory;
+        this.pool = new GenericObjectPool<>(new SftpSessionObjectFactory(), poolConfig);
+    }
+
+    /**
+     * Registra las métricas del pool (opcional: sin registry solo se pierde visibilidad)
+     */
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sftp.pool.active", pool, GenericObjectPool::getNumActive)
+            .tag("endpoint", endpoint).description("Sesiones SFTP prestadas").register(registry);
+        Gauge.builder("sftp.pool.idle", pool, GenericObjectPool::getNumIdle)
+            .tag("endpoint", endpoint).description("Sesiones SFTP en reposo").register(registry);
+        Gauge.builder("sftp.pool.waiters", pool, GenericObjectPool::getNumWaiters)
+            .tag("endpoint", endpoint).description("Threads esperando una sesion").register(registry);
+        borrowWaitTimer = Timer.builder("sftp.pool.borrow.wait")
+            .tag("endpoint", endpoint).description("Espera para obtener una sesion del pool").register(registry);
+        createFailures = Counter.builder("sftp.pool.create.failures")
+            .tag("endpoint", endpoint).description("Fallos al crear sesiones SFTP").register(registry);
+    }
+
+    @Override
+    public Session<SftpClient.DirEntry> getSession() {
+        long start = System.nanoTime();
+        try {
+            SftpSession session = pool.borrowObject();
+            return new PooledSession(session);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to obtain SFTP session from pool (" + endpoint + ", active: " 
+                + pool.getNumActive() + ", waiters: " + pool.getNumWaiters() + ")", e);
+        } finally {
+            if (borrowWaitTimer != null) {
+                borrowWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Calienta el pool: presta en paralelo hasta {@code sessions} sesiones
+     * (las que falten se crean, todas se validan) y las devuelve en reposo.
+     *
+     * @return sesiones válidas en reposo tras el calentamiento
+     */
+    public int warmUp(int sessions) {
+        int target = Math.min(sessions, pool.getMaxTotal());
+        List<Session<SftpClient.DirEntry>> borrowed = Collections.synchronizedList(new ArrayList<>(target));
+        AtomicInteger failures = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < target; i++) {
+                executor.execute(() -> {
+                    try {
+                        Session<SftpClient.DirEntry> session = getSession();
+                        borrowed.add(session);
+                        if (!session.test()) {
+                            session.dirty();
+                            failures.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        log.debug("Warm-up session failed ({})", endpoint, e);
+                    }
+                });
+            }
+        }
+
+        // Devolver todas a la vez: prestadas simultáneamente obligan a crear las que falten
+        borrowed.forEach(Session::close);
+
+        if (failures.get() > 0) {
+            log.warn("SFTP pool warm-up ({}): {} of {} sessions failed", endpoint, failures.get(), target);
+        }
+        return pool.getNumIdle();
+    }
+
+    public int getNumActive() {
+        return pool.getNumActive();
+    }
+
+    public int getNumIdle() {
+        return pool.getNumIdle();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+        targetFactory.destroy();
+    }
+
+    private void release(SftpSession session, boolean dirty) {
+        if (dirty || !session.isOpen()) {
+            try {
+                pool.invalidateObject(session);
+            } catch (Exception e) {
+                log.warn("Failed to invalidate SFTP session ({})", endpoint, e);
+            }
+        } else {
+            pool.returnObject(session);
+        }
+    }
+
+    /**
+     * Ciclo de vida de las sesiones del pool
+     */
+    private class SftpSessionObjectFactory extends BasePooledObjectFactory<SftpSession> {
+
+        @Override
+        public SftpSession create() {
+            try {
+                return targetFactory.getSession();
+            } catch (RuntimeException e) {
+                if (createFailures != null) {
+                    createFailures.increment();
+                }
+                log.error("Failed to create SFTP session ({})", endpoint, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public PooledObject<SftpSession> wrap(SftpSession session) {
+            return new DefaultPooledObject<>(session);
+        }
+
+        @Override
+        public boolean validateObject(PooledObject<SftpSession> pooled) {
+            SftpSession session = pooled.getObject();
+            return session.isOpen() && session.test();
+        }
+
+        @Override
+        public void destroyObject(PooledObject<SftpSession> pooled) {
+            try {
+                pooled.getObject().close();
+            } catch (Exception e) {
+                log.debug("Error closing SFTP session ({})", endpoint, e);
+            }
+        }
+    }
+
+    /**
+     * Sesión prestada: delega en la sesión real y al cerrarse vuelve al pool
+     */
+    private class PooledSession implements Session<SftpClient.DirEntry> {
+
+        private final SftpSession target;
+        private boolean dirty = false;
+        private boolean released = false;
+
+        PooledSession(SftpSession target) {
+            this.target = target;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(target, dirty);
+        }
+
+        @Override
+        public void dirty() {
+            dirty = true;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !released && target.isOpen();
+        }
+
+        @Override
+        public boolean test() {
+            return isOpen() && target.test();
+        }
+
+        @Override
+        public boolean remove(String path) throws IOException {
+            return target.remove(path);
+        }
+
+        @Override
+        public SftpClient.DirEntry[] list(String path) throws IOException {
+            return target.list(path);
+        }
+
+        @Override
+        public String[] listNames(String path) throws IOException {
+            return target.listNames(path);
+        }
+
+        @Override
+        public void read(String source, OutputStream outputStream) throws IOException {
+            target.read(source, outputStream);
+        }
+
+        @Override
+        public void write(InputStream inputStream, String destination) throws IOException {
+            target.write(inputStream, destination);
+        }
+
+        @Override
+        public void append(InputStream inputStream, String destination) throws IOException {
+            target.append(inputStream, destination);
+        }
+
+        @Override
+        public boolean mkdir(String directory) throws IOException {
+            return target.mkdir(directory);
+        }
+
+        @Override
+        public boolean rmdir(String directory) throws IOException {
+            return target.rmdir(directory);
+        }
+
+        @Override
+        public void rename(String pathFrom, String pathTo) throws IOException {
+            target.rename(pathFrom, pathTo);
+        }
+
+        @Override
+        public boolean exists(String path) throws IOException {
+            return target.exists(path);
+        }
+
+        @Override
+        public InputStream readRaw(String source) throws IOException {
+            return target.readRaw(source);
+        }
+
+        @Override
+        public boolean finalizeRaw() throws IOException {
+            return target.finalizeRaw();
+        }
+
+        @Override
+        public Object getClientInstance() {
+            return target.getClientInstance();
+        }
+
+        @Override
+        public String getHostPort() {
+            return target.getHostPort();
+        }
+    }
+}
@@ -14,14 +14,19 @@
 package com.indra.minsait.dvsmart.reorganization.infrastructure.sftp;
 
 import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.Cleanup;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.Destination;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.Origin;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties.Pool;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.integration.file.remote.session.CachingSessionFactory;
-import org.springframework.integration.file.remote.session.SessionFactory;
-import org.springframework.integration.sftp.session.DefaultSftpSessionFactory;
 import org.springframework.integration.sftp.session.SftpRemoteFileTemplate;
+import org.springframework.integration.sftp.session.SftpSession;
+import java.time.Duration;
 
 /**
  * Author: hahuaranga@indracompany.com
@@ -34,37 +39,24 @@ import org.springframework.integration.sftp.session.SftpRemoteFileTemplate;
 public class SftpSessionFactoryConfig {
 
     private final SftpConfigProperties props;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
 
     @Bean(name = "sftpOriginSessionFactory")
-    SessionFactory<SftpClient.DirEntry> sftpOriginSessionFactory() {
-        DefaultSftpSessionFactory factory = new DefaultSftpSessionFactory(true);
-        factory.setHost(props.getOrigin().getHost());
-        factory.setPort(props.getOrigin().getPort());
-        factory.setUser(props.getOrigin().getUser());
-        factory.setPassword(props.getOrigin().getPassword());
-        factory.setTimeout(props.getOrigin().getTimeout());
-        factory.setAllowUnknownKeys(true);
-
-        CachingSessionFactory<SftpClient.DirEntry> cachingFactory = new CachingSessionFactory<>(factory);
-        cachingFactory.setPoolSize(props.getOrigin().getPool().getSize());
-
-        return cachingFactory;
+    PooledSftpSessionFactory sftpOriginSessionFactory() {
+        Origin origin = props.getOrigin();
+        return pooled("origin", new MultiplexedSftpSessionFactory("origin",
+                origin.getHost(), origin.getPort(), origin.getUser(), origin.getPassword(),
+                origin.getTimeout(), true, origin.getPool().getKeepaliveIntervalMs(),
+                origin.getPool().getChannelsPerConnection()), origin.getPool());
     }
 
     @Bean(name = "sftpDestinationSessionFactory")
-    SessionFactory<SftpClient.DirEntry> sftpDestinationSessionFactory() {
-        DefaultSftpSessionFactory factory = new DefaultSftpSessionFactory(true);
-        factory.setHost(props.getDest().getHost());
-        factory.setPort(props.getDest().getPort());
-        factory.setUser(props.getDest().getUser());
-        factory.setPassword(props.getDest().getPassword());
-        factory.setTimeout(props.getDest().getTimeout());
-        factory.setAllowUnknownKeys(true);
-
-        CachingSessionFactory<SftpClient.DirEntry> cachingFactory = new CachingSessionFactory<>(factory);
-        cachingFactory.setPoolSize(props.getDest().getPool().getSize());
-
-        return cachingFactory;
+    PooledSftpSessionFactory sftpDestinationSessionFactory() {
+        Destination dest = props.getDest();
+        return pooled("dest", new MultiplexedSftpSessionFactory("dest",
+                dest.getHost(), dest.getPort(), dest.getUser(), dest.getPassword(),
+                dest.getTimeout(), true, dest.getPool().getKeepaliveIntervalMs(),
+                dest.getPool().getChannelsPerConnection()), dest.getPool());
     }
 
     @Bean(name = "sftpOriginTemplate")
@@ -76,4 +68,50 @@ public class SftpSessionFactoryConfig {
     SftpRemoteFileTemplate sftpDestinationTemplate() {
         return new SftpRemoteFileTemplate(sftpDestinationSessionFactory());
     }
-}
\ No newline at end of file
+
+    /**
+     * Conexiones SSHJ persistentes al origen para el borrado (cleanup-origin-step)
+     */
+    @Bean(name = "cleanupSshjConnectionPool")
+    SshjConnectionPool cleanupSshjConnectionPool() {
+        Origin origin = props.getOrigin();
+        Cleanup cleanup = props.getCleanup();
+
+        GenericObjectPoolConfig<SshjConnectionPool.Connection> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(cleanup.getConnections());
+        config.setMaxIdle(cleanup.getConnections());
+        config.setBlockWhenExhausted(true);
+        config.setMaxWait(Duration.ofMillis(cleanup.getMaxWaitMs()));
+        config.setTestOnBorrow(true);
+        config.setTestWhileIdle(true);
+        config.setTimeBetweenEvictionRuns(Duration.ofMillis(cleanup.getTimeBetweenEvictionRunsMs()));
+        config.setMinEvictableIdleDuration(Duration.ofMillis(cleanup.getMinEvictableIdleTimeMs()));
+        config.setJmxEnabled(false);
+
+        return new SshjConnectionPool("cleanup", origin.getHost(), origin.getPort(), origin.getUser(),
+            origin.getPassword(), origin.getTimeout(), cleanup.getKeepaliveIntervalMs(), config);
+    }
+
+    /**
+     * Envuelve la factoría multiplexada en un pool commons-pool2 con métricas
+     */
+    private PooledSftpSessionFactory pooled(String endpoint, MultiplexedSftpSessionFactory factory, Pool pool) {
+        GenericObjectPoolConfig<SftpSession> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(pool.getSize());
+        config.setMaxIdle(pool.getSize());
+        config.setMinIdle(Math.min(pool.getMinIdle(), pool.getSize()));
+        config.setBlockWhenExhausted(true);
+        config.setMaxWait(Duration.ofMillis(pool.getMaxWaitMs()));
+        config.setTestOnBorrow(pool.isTestOnBorrow());
+        config.setTestWhileIdle(pool.isTestWhileIdle());
+        config.setTimeBetweenEvictionRuns(Duration.ofMillis(pool.getTimeBetweenEvictionRunsMs()));
+        // Evicción "soft": cierra sesiones inactivas pero respeta min-idle
+        config.setSoftMinEvictableIdleDuration(Duration.ofMillis(pool.getMinEvictableIdleTimeMs()));
+        config.setMinEvictableIdleDuration(Duration.ofMillis(-1));
+        config.setJmxEnabled(false);
+
+        PooledSftpSessionFactory pooled = new PooledSftpSessionFactory(endpoint, factory, config);
+        meterRegistry.ifAvailable(pooled::bindTo);
+        return pooled;
+    }
+}
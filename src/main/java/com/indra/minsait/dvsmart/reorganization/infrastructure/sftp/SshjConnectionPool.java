@@ -0,0 +1,194 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.sftp;
+
+import lombok.extern.slf4j.Slf4j;
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.sftp.SFTPClient;
+import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.DisposableBean;
+import java.io.IOException;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 21:02:18
+ * File: SshjConnectionPool.java
+ */
+
+/**
+ * Pool commons-pool2 de conexiones SSHJ (SSHClient + SFTPClient) de larga vida.
+ *
+ * - Una conexión se reutiliza entre chunks: sin connect/auth por chunk
+ * - Validación al prestar y en reposo (canonicalize "."), keepalive SSH
+ * - Un SFTPClient de SSHJ admite peticiones concurrentes (request ids), así que
+ *   varios threads pueden compartir la conexión prestada
+ *
+ * Uso: try (Lease lease = pool.borrow()) { ... lease.sftp() ... }; ante un error
+ * de conexión, lease.invalidate() la descarta en lugar de devolverla.
+ */
+@Slf4j
+public class SshjConnectionPool implements DisposableBean {
+
+    private final String name;
+    private final String host;
+    private final int port;
+    private final String user;
+    private final String password;
+    private final int timeoutMs;
+    private final int keepaliveIntervalSeconds;
+    private final GenericObjectPool<Connection> pool;
+
+    public SshjConnectionPool(String name, String host, int port, String user, String password,
+                              int timeoutMs, long keepaliveIntervalMs,
+                              GenericObjectPoolConfig<Connection> poolConfig) {
+        this.name = name;
+        this.host = host;
+        this.port = port;
+        this.user = user;
+        this.password = password;
+        this.timeoutMs = timeoutMs;
+        this.keepaliveIntervalSeconds = (int) Math.max(0, keepaliveIntervalMs / 1000);
+        this.pool = new GenericObjectPool<>(new ConnectionFactory(), poolConfig);
+    }
+
+    public Lease borrow() throws IOException {
+        try {
+            return new Lease(pool.borrowObject());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to obtain SSH connection from pool (" + name + ", active: "
+                + pool.getNumActive() + ")", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+    }
+
+    /**
+     * Conexión SSH autenticada con su subsistema SFTP abierto
+     */
+    public record Connection(SSHClient ssh, SFTPClient sftp) {
+    }
+
+    /**
+     * Préstamo de una conexión: close() la devuelve al pool
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final Connection connection;
+        private boolean invalid = false;
+        private boolean closed = false;
+
+        private Lease(Connection connection) {
+            this.connection = connection;
+        }
+
+        public SSHClient ssh() {
+            return connection.ssh();
+        }
+
+        public SFTPClient sftp() {
+            return connection.sftp();
+        }
+
+        /**
+         * Marca la conexión como rota: se cerrará en lugar de volver al pool
+         */
+        public void invalidate() {
+            invalid = true;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (invalid || !connection.ssh().isConnected()) {
+                try {
+                    pool.invalidateObject(connection);
+                } catch (Exception e) {
+                    log.warn("Failed to invalidate SSH connection ({})", name, e);
+                }
+            } else {
+                pool.returnObject(connection);
+            }
+        }
+    }
+
+    private class ConnectionFactory extends BasePooledObjectFactory<Connection> {
+
+        @Override
+        public Connection create() throws IOException {
+            SSHClient ssh = new SSHClient();
+            try {
+                ssh.addHostKeyVerifier(new PromiscuousVerifier());
+                ssh.setConnectTimeout(timeoutMs);
+                ssh.setTimeout(timeoutMs);
+                ssh.connect(host, port);
+                if (keepaliveIntervalSeconds > 0) {
+                    ssh.getConnection().getKeepAlive().setKeepAliveInterval(keepaliveIntervalSeconds);
+                }
+                ssh.authPassword(user, password);
+                SFTPClient sftp = ssh.newSFTPClient();
+                log.debug("SSH connection opened ({}, {}:{})", name, host, port);
+                return new Connection(ssh, sftp);
+            } catch (IOException | RuntimeException e) {
+                ssh.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public PooledObject<Connection> wrap(Connection connection) {
+            return new DefaultPooledObject<>(connection);
+        }
+
+        @Override
+        public boolean validateObject(PooledObject<Connection> pooled) {
+            Connection connection = pooled.getObject();
+            try {
+                return connection.ssh().isConnected()
+                    && connection.ssh().isAuthenticated()
+                    && connection.sftp().canonicalize(".") != null;
+            } catch (IOException e) {
+                log.debug("SSH connection failed validation ({})", name, e);
+                return false;
+            }
+        }
+
+        @Override
+        public void destroyObject(PooledObject<Connection> pooled) {
+            Connection connection = pooled.getObject();
+            try {
+                connection.sftp().close();
+            } catch (IOException e) {
+                log.debug("Error closing SFTP client ({})", name, e);
+            }
+            try {
+                connection.ssh().disconnect();
+            } catch (IOException e) {
+                log.debug("Error closing SSH connection ({})", name, e);
+            }
+        }
+    }
+}
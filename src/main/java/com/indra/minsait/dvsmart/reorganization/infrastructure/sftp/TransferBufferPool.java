@@ -0,0 +1,84 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.infrastructure.sftp;
+
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 16:41:55
+ * File: TransferBufferPool.java
+ */
+
+/**
+ * Pool compartido de buffers reutilizables para las transferencias SFTP.
+ *
+ * - Un buffer por transferencia en curso, devuelto al terminar
+ * - Agrupados por tamaño (cada endpoint define el suyo)
+ * - Como máximo sftp.transfer.buffer-pool-max-buffers retenidos; el resto se
+ *   descarta al devolverlos (el GC los recoge)
+ *
+ * Son byte[] de heap: la API de Apache MINA SFTP lee y escribe sobre byte[],
+ * un ByteBuffer directo obligaría a una copia extra por paquete.
+ */
+@Slf4j
+@Component
+public class TransferBufferPool {
+
+    private final Map<Integer, Queue<byte[]>> buffersBySize = new ConcurrentHashMap<>();
+    private final AtomicInteger retained = new AtomicInteger();
+    private final int maxRetained;
+
+    public TransferBufferPool(SftpConfigProperties props) {
+        this.maxRetained = props.getTransfer().getBufferPoolMaxBuffers();
+    }
+
+    /**
+     * Obtiene un buffer de exactamente size bytes
+     */
+    public byte[] acquire(int size) {
+        Queue<byte[]> queue = buffersBySize.get(size);
+        byte[] buffer = queue != null ? queue.poll() : null;
+        if (buffer != null) {
+            retained.decrementAndGet();
+            return buffer;
+        }
+        return new byte[size];
+    }
+
+    /**
+     * Devuelve el buffer al pool (sin limpiar: el contenido se sobrescribe)
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (retained.incrementAndGet() > maxRetained) {
+            retained.decrementAndGet();
+            return;
+        }
+        buffersBySize.computeIfAbsent(buffer.length, size -> new ConcurrentLinkedQueue<>()).offer(buffer);
+    }
+
+    public int getRetained() {
+        return retained.get();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.batch.config;
+
+import com.indra.minsait.dvsmart.reorganization.adapter.out.batch.partition.FilesIndexRangePartitioner;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.BatchConfigProperties.RemoteTransport;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.EnableJdbcJobRepository;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.Partitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 18-10-2026 at 10:02:41
+ * File: RemotePartitioningConfigTest.java
+ */
+
+/**
+ * Particionado remoto con transporte LOCAL (ExecutorChannel en memoria, sin broker):
+ * el manager envía las particiones por reorgPartitionRequests y el worker de la
+ * misma JVM ejecuta reorganizeWorkerStep sobre cada rango.
+ */
+@SpringJUnitConfig(RemotePartitioningConfigTest.TestConfig.class)
+@TestPropertySource(properties = "batch.partition-mode=REMOTE")
+class RemotePartitioningConfigTest {
+
+    private static final int GRID_SIZE = 3;
+
+    /**
+     * minId de cada partición -> thread del worker que la ejecutó
+     */
+    private static final Map<String, String> executedPartitions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobOperator jobOperator;
+
+    @Autowired
+    @Qualifier("reorgRemotePartitionHandler")
+    private PartitionHandler reorgRemotePartitionHandler;
+
+    @Autowired
+    @Qualifier("reorgPartitionRequests")
+    private MessageChannel reorgPartitionRequests;
+
+    @Test
+    void workersExecuteEveryPartitionSentThroughLocalChannel() throws Exception {
+        // Mismo ensamblado que BatchReorgFullConfig.reorganizeRemotePartitionedStep
+        Step manager = new StepBuilder("reorganizeRemotePartitionedStep", jobRepository)
+                .partitioner("reorganizeWorkerStep", rangePartitioner())
+                .partitionHandler(reorgRemotePartitionHandler)
+                .build();
+        Job job = new JobBuilder("remote-partitioning-test", jobRepository).start(manager).build();
+
+        JobExecution execution = jobOperator.start(job, new JobParameters());
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(reorgPartitionRequests).isInstanceOf(ExecutorChannel.class);
+        assertThat(executedPartitions).containsOnlyKeys("id-0", "id-1", "id-2");
+        assertThat(executedPartitions.values()).allMatch(thread -> thread.startsWith("batch-reorg-remote-local-"));
+
+        // 1 step manager + GRID_SIZE steps worker; el estado de los workers se lee del JobRepository
+        assertThat(execution.getStepExecutions())
+                .hasSize(GRID_SIZE + 1)
+                .map(step -> jobRepository.getStepExecution(execution.getId(), step.getId()).getStatus())
+                .containsOnly(BatchStatus.COMPLETED);
+    }
+
+    @Test
+    void remoteBeansAreNotCreatedOutsideRemoteMode() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(RemotePartitioningConfig.class)
+                .withPropertyValues("batch.partition-mode=LOCAL")
+                .run(context -> assertThat(context)
+                        .hasNotFailed()
+                        .doesNotHaveBean("reorgPartitionRequests")
+                        .doesNotHaveBean("reorgRemotePartitionHandler")
+                        .doesNotHaveBean("reorgPartitionWorkerFlow"));
+    }
+
+    /**
+     * Rangos fijos con el mismo contrato que FilesIndexRangePartitioner
+     */
+    private static Partitioner rangePartitioner() {
+        return gridSize -> {
+            Map<String, ExecutionContext> partitions = new HashMap<>();
+            for (int i = 0; i < GRID_SIZE; i++) {
+                ExecutionContext context = new ExecutionContext();
+                context.putString(FilesIndexRangePartitioner.MIN_ID_KEY, "id-" + i);
+                partitions.put("partition" + i, context);
+            }
+            return partitions;
+        };
+    }
+
+    @Configuration
+    @EnableIntegration
+    @EnableBatchProcessing
+    @EnableJdbcJobRepository
+    @Import(RemotePartitioningConfig.class)
+    static class TestConfig {
+
+        @Bean
+        DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .addScript("/org/springframework/batch/core/schema-h2.sql")
+                    .build();
+        }
+
+        @Bean
+        JdbcTransactionManager transactionManager(DataSource dataSource) {
+            return new JdbcTransactionManager(dataSource);
+        }
+
+        @Bean
+        BatchConfigProperties batchConfigProperties() {
+            BatchConfigProperties props = new BatchConfigProperties();
+            props.setPartitionGridSize(GRID_SIZE);
+            props.getRemotePartitioning().setTransport(RemoteTransport.LOCAL);
+            props.getRemotePartitioning().setWorkerConcurrency(GRID_SIZE);
+            props.getRemotePartitioning().setPollIntervalMs(100);
+            props.getRemotePartitioning().setTimeoutMs(30000);
+            return props;
+        }
+
+        /**
+         * Sustituto del worker real: registra la partición recibida
+         */
+        @Bean
+        Step reorganizeWorkerStep(JobRepository jobRepository, JdbcTransactionManager transactionManager) {
+            return new StepBuilder("reorganizeWorkerStep", jobRepository)
+                    .tasklet((contribution, chunkContext) -> {
+                        ExecutionContext partition = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+                        executedPartitions.put(partition.getString(FilesIndexRangePartitioner.MIN_ID_KEY),
+                                Thread.currentThread().getName());
+                        return RepeatStatus.FINISHED;
+                    }, transactionManager)
+                    .build();
+        }
+    }
+}
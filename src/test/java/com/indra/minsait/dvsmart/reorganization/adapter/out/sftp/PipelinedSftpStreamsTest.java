@@ -0,0 +1,219 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.keyverifier.AcceptAllServerKeyVerifier;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.sftp.SftpModuleProperties;
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClientFactory;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+import org.apache.sshd.sftp.server.FileHandle;
+import org.apache.sshd.sftp.server.SftpEventListener;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 18-10-2026 at 11:26:03
+ * File: PipelinedSftpStreamsTest.java
+ */
+
+/**
+ * PipelinedSftpInputStream / PipelinedSftpOutputStream contra un servidor SFTP
+ * embebido (MINA). El servidor limita cada DATA a MAX_READ bytes, de modo que
+ * todas las lecturas de CHUNK bytes son cortas y generan peticiones del resto.
+ */
+class PipelinedSftpStreamsTest {
+
+    private static final String USER = "reorg";
+    private static final String PASSWORD = "secret";
+    private static final int MAX_READ = SftpModuleProperties.MIN_READDATA_PACKET_LENGTH;
+    private static final int CHUNK = 100_000;
+    private static final int WINDOW = 4;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path root;
+
+    private final AtomicInteger serverReads = new AtomicInteger();
+    private final AtomicLong failWritesFrom = new AtomicLong(Long.MAX_VALUE);
+
+    private SshServer server;
+    private SshClient sshClient;
+    private ClientSession session;
+    private SftpClient client;
+    private RawSftpClient raw;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        SftpSubsystemFactory sftp = new SftpSubsystemFactory();
+        sftp.addSftpEventListener(new SftpEventListener() {
+            @Override
+            public void reading(ServerSession session, String remoteHandle, FileHandle localHandle,
+                                long offset, byte[] data, int dataOffset, int dataLen) {
+                serverReads.incrementAndGet();
+            }
+
+            @Override
+            public void writing(ServerSession session, String remoteHandle, FileHandle localHandle,
+                                long offset, byte[] data, int dataOffset, int dataLen) throws IOException {
+                if (offset >= failWritesFrom.get()) {
+                    throw new IOException("Simulated write failure at offset " + offset);
+                }
+            }
+        });
+
+        server = SshServer.setUpDefaultServer();
+        server.setHost("127.0.0.1");
+        server.setPort(0);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        server.setPasswordAuthenticator((user, password, serverSession) -> USER.equals(user) && PASSWORD.equals(password));
+        server.setSubsystemFactories(List.of(sftp));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+        SftpModuleProperties.MAX_READDATA_PACKET_LENGTH.set(server, MAX_READ);
+        server.start();
+
+        sshClient = SshClient.setUpDefaultClient();
+        sshClient.setServerKeyVerifier(AcceptAllServerKeyVerifier.INSTANCE);
+        sshClient.start();
+        session = sshClient.connect(USER, "127.0.0.1", server.getPort()).verify(TIMEOUT).getSession();
+        session.addPasswordIdentity(PASSWORD);
+        session.auth().verify(TIMEOUT);
+        client = SftpClientFactory.instance().createSftpClient(session);
+        raw = (RawSftpClient) client;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        if (sshClient != null) {
+            sshClient.stop();
+        }
+        if (server != null) {
+            server.stop(true);
+        }
+    }
+
+    @Test
+    void roundTripsFileWithShortReads() throws IOException {
+        byte[] data = randomBytes(1_000_003);
+
+        try (OutputStream out = new PipelinedSftpOutputStream(client, raw, "/data.bin", CHUNK, WINDOW, TIMEOUT)) {
+            // Escrituras de tamaño irregular para cruzar los límites de CHUNK
+            int off = 0;
+            while (off < data.length) {
+                int n = Math.min(77_777, data.length - off);
+                out.write(data, off, n);
+                off += n;
+            }
+        }
+        assertThat(Files.readAllBytes(root.resolve("data.bin"))).isEqualTo(data);
+
+        try (InputStream in = new PipelinedSftpInputStream(client, raw, "/data.bin", CHUNK, WINDOW, TIMEOUT)) {
+            assertThat(in.readAllBytes()).isEqualTo(data);
+        }
+
+        // Cada petición de CHUNK bytes se sirve en varios DATA de MAX_READ bytes
+        int fullRequests = (data.length + CHUNK - 1) / CHUNK;
+        assertThat(serverReads.get()).isGreaterThanOrEqualTo((data.length + MAX_READ - 1) / MAX_READ)
+                .isGreaterThan(fullRequests);
+    }
+
+    @Test
+    void readsOnlyTheRequestedRange() throws IOException {
+        byte[] data = randomBytes(700_000);
+        Files.write(root.resolve("range.bin"), data);
+
+        long offset = 123_457;
+        int length = 300_001;
+        try (InputStream in = new PipelinedSftpInputStream(client, raw, "/range.bin", CHUNK, WINDOW, TIMEOUT,
+                offset, length)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(data, (int) offset, (int) offset + length));
+        }
+    }
+
+    @Test
+    void stopsAtEofAndDiscardsPendingReads() throws IOException {
+        byte[] small = randomBytes(10);
+        byte[] next = randomBytes(250_000);
+        Files.write(root.resolve("small.bin"), small);
+        Files.write(root.resolve("next.bin"), next);
+
+        // Ventana mucho mayor que el archivo: quedan lecturas en vuelo al llegar a EOF
+        try (InputStream in = new PipelinedSftpInputStream(client, raw, "/small.bin", 4096, 16, TIMEOUT)) {
+            assertThat(in.readAllBytes()).isEqualTo(small);
+            assertThat(in.read()).isEqualTo(-1);
+        }
+
+        // Ninguna respuesta descartada se entrega al siguiente stream del mismo cliente
+        try (InputStream in = new PipelinedSftpInputStream(client, raw, "/next.bin", CHUNK, WINDOW, TIMEOUT)) {
+            assertThat(in.readAllBytes()).isEqualTo(next);
+        }
+    }
+
+    @Test
+    void propagatesWriteFailureInTheMiddleOfTheWindow() throws IOException {
+        byte[] data = randomBytes(1_000_000);
+        failWritesFrom.set(3L * 32_768);
+
+        assertThatThrownBy(() -> {
+            try (OutputStream out = new PipelinedSftpOutputStream(client, raw, "/fail.bin", 32_768, 8, TIMEOUT)) {
+                out.write(data);
+            }
+        }).isInstanceOfSatisfying(SftpException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(SftpConstants.SSH_FX_FAILURE));
+
+        // Todos los ACK se consumieron: el cliente sigue sincronizado
+        failWritesFrom.set(Long.MAX_VALUE);
+        byte[] retry = randomBytes(200_000);
+        try (OutputStream out = new PipelinedSftpOutputStream(client, raw, "/fail.bin", 32_768, 8, TIMEOUT)) {
+            out.write(retry);
+        }
+        assertThat(client.stat("/fail.bin").getSize()).isEqualTo(retry.length);
+        assertThat(Files.readAllBytes(root.resolve("fail.bin"))).isEqualTo(retry);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+}
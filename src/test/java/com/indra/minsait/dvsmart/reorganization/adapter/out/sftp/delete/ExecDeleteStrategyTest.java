@@ -0,0 +1,310 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.adapter.out.sftp.delete;
+
+import com.indra.minsait.dvsmart.reorganization.domain.model.CleanupResult;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.concurrency.RateLimiter;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.sftp.SshjConnectionPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.ExitCallback;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.channel.ChannelSession;
+import org.apache.sshd.server.command.Command;
+import org.apache.sshd.server.command.CommandFactory;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.shell.ProcessShellFactory;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 23:58:12
+ * File: ExecDeleteStrategyTest.java
+ */
+
+/**
+ * ExecDeleteStrategy contra un sshd embebido (MINA) con un sustituto del comando
+ * remoto: lee las rutas separadas por NUL, borra con semántica rm -f y responde
+ * "OK|ERR\t<ruta>\0". Las rutas *.noreport no reciben registro y las *.hang
+ * bloquean el comando hasta que se cierra el canal.
+ * 
+ * runsRealRemoteCommandThroughShell ejecuta el REMOTE_COMMAND real (xargs + sh)
+ * con el shell del sistema, como haría OpenSSH.
+ */
+class ExecDeleteStrategyTest {
+
+    private static final String USER = "cleanup";
+    private static final String PASSWORD = "secret";
+
+    @TempDir
+    Path origin;
+
+    private final List<String> receivedCommands = new CopyOnWriteArrayList<>();
+
+    private SshServer server;
+    private SshjConnectionPool pool;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (pool != null) {
+            pool.destroy();
+        }
+        if (server != null) {
+            server.stop(true);
+        }
+    }
+
+    @Test
+    void appliesRemoteOutcomesAndFailsPathsWithoutRecord() throws Exception {
+        startServer((channel, command) -> {
+            receivedCommands.add(command);
+            return new DeleteStandIn();
+        });
+
+        Path existing = Files.writeString(origin.resolve("a.txt"), "data");
+        Path alreadyGone = origin.resolve("gone.txt");
+        Path nonEmptyDir = Files.createDirectory(origin.resolve("full"));
+        Files.writeString(nonEmptyDir.resolve("child.txt"), "data");
+        Path unreported = Files.writeString(origin.resolve("x.noreport"), "data");
+
+        CleanupResult deleted = result(existing);
+        CleanupResult duplicate = result(existing);
+        CleanupResult missing = result(alreadyGone);
+        CleanupResult rmFailed = result(nonEmptyDir);
+        CleanupResult noRecord = result(unreported);
+
+        delete(strategy(60000), List.of(deleted, duplicate, missing, rmFailed, noRecord));
+
+        assertThat(receivedCommands).containsExactly(ExecDeleteStrategy.REMOTE_COMMAND);
+
+        assertThat(deleted.isDeleted()).isTrue();
+        assertThat(duplicate.isDeleted()).isTrue();
+        assertThat(existing).doesNotExist();
+
+        // rm -f: un archivo que ya no existe cuenta como borrado
+        assertThat(missing.isDeleted()).isTrue();
+
+        assertThat(rmFailed.isDeleted()).isFalse();
+        assertThat(rmFailed.getErrorMessage()).isEqualTo("Remote rm failed");
+        assertThat(nonEmptyDir).exists();
+
+        assertThat(noRecord.isDeleted()).isFalse();
+        assertThat(noRecord.getErrorMessage()).startsWith("No outcome reported by remote delete");
+    }
+
+    @Test
+    void runsRealRemoteCommandThroughShell() throws Exception {
+        Path shell = Path.of("/bin/sh");
+        assumeTrue(Files.isExecutable(shell), "requires /bin/sh");
+
+        // Como OpenSSH: el comando exec se ejecuta con "sh -c <comando>"
+        startServer((channel, command) -> {
+            receivedCommands.add(command);
+            return new ProcessShellFactory(command, shell.toString(), "-c", command).createShell(channel);
+        });
+
+        Path plain = Files.writeString(origin.resolve("a.txt"), "data");
+        Path withSpaces = Files.writeString(origin.resolve("with space 'quoted'.txt"), "data");
+        Path withTab = Files.writeString(origin.resolve("tab\tname.txt"), "data");
+        Path alreadyGone = origin.resolve("gone.txt");
+        Path nonEmptyDir = Files.createDirectory(origin.resolve("full"));
+        Files.writeString(nonEmptyDir.resolve("child.txt"), "data");
+
+        CleanupResult deleted = result(plain);
+        CleanupResult duplicate = result(plain);
+        CleanupResult spaces = result(withSpaces);
+        CleanupResult tab = result(withTab);
+        CleanupResult missing = result(alreadyGone);
+        CleanupResult rmFailed = result(nonEmptyDir);
+
+        delete(strategy(60000), List.of(deleted, duplicate, spaces, tab, missing, rmFailed));
+
+        assertThat(receivedCommands).containsExactly(ExecDeleteStrategy.REMOTE_COMMAND);
+
+        assertThat(List.of(deleted, duplicate, spaces, tab, missing)).allMatch(CleanupResult::isDeleted);
+        assertThat(plain).doesNotExist();
+        assertThat(withSpaces).doesNotExist();
+        assertThat(withTab).doesNotExist();
+
+        // rm -f sobre un directorio falla: registro ERR
+        assertThat(rmFailed.isDeleted()).isFalse();
+        assertThat(rmFailed.getErrorMessage()).isEqualTo("Remote rm failed");
+        assertThat(nonEmptyDir).exists();
+    }
+
+    @Test
+    void closesHungCommandAfterTimeout() throws Exception {
+        startServer((channel, command) -> new DeleteStandIn());
+
+        CleanupResult hung = result(origin.resolve("stale-nfs.hang"));
+
+        long start = System.nanoTime();
+        delete(strategy(1000), List.of(hung));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(10000);
+        assertThat(hung.isDeleted()).isFalse();
+        assertThat(hung.getErrorMessage()).isEqualTo("Remote delete timed out after 1000ms");
+    }
+
+    @Test
+    void fallsBackToPipelinedRemovesWhenExecIsRefused() throws Exception {
+        startServer(null);  // Sin CommandFactory: el servidor rechaza exec (solo SFTP)
+
+        Path file = Files.writeString(origin.resolve("b.txt"), "data");
+        CleanupResult result = result(file);
+
+        delete(strategy(60000), List.of(result));
+
+        assertThat(result.isDeleted()).isTrue();
+        assertThat(file).doesNotExist();
+    }
+
+    private void startServer(CommandFactory commandFactory) throws IOException {
+        server = SshServer.setUpDefaultServer();
+        server.setHost("127.0.0.1");
+        server.setPort(0);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        server.setPasswordAuthenticator((user, password, session) -> USER.equals(user) && PASSWORD.equals(password));
+        server.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        server.setCommandFactory(commandFactory);
+        server.start();
+
+        GenericObjectPoolConfig<SshjConnectionPool.Connection> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(1);
+        config.setJmxEnabled(false);
+        pool = new SshjConnectionPool("test", "127.0.0.1", server.getPort(), USER, PASSWORD, 10000, 0, config);
+    }
+
+    private static ExecDeleteStrategy strategy(long execTimeoutMs) {
+        SftpConfigProperties props = new SftpConfigProperties();
+        props.getOrigin().setTimeout(10000);
+        props.getCleanup().setExecTimeoutMs(execTimeoutMs);
+        RateLimiter unlimited = new RateLimiter("cleanup-delete", 0, 0);
+        return new ExecDeleteStrategy(unlimited, new PipelinedRemoveDeleteStrategy(unlimited, props), props);
+    }
+
+    private void delete(ExecDeleteStrategy strategy, List<CleanupResult> results) throws Exception {
+        try (SshjConnectionPool.Lease lease = pool.borrow()) {
+            strategy.delete(lease, results);
+        }
+    }
+
+    private static CleanupResult result(Path path) {
+        return CleanupResult.builder()
+                .idUnico(path.getFileName().toString())
+                .sourcePath(path.toString())
+                .build();
+    }
+
+    /**
+     * Sustituto del xargs -0 sh -c 'rm -f ...' remoto
+     */
+    private static class DeleteStandIn implements Command {
+
+        private InputStream in;
+        private OutputStream out;
+        private ExitCallback exitCallback;
+        private Thread worker;
+
+        @Override
+        public void setInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setErrorStream(OutputStream err) {
+            // Sin stderr
+        }
+
+        @Override
+        public void setExitCallback(ExitCallback exitCallback) {
+            this.exitCallback = exitCallback;
+        }
+
+        @Override
+        public void start(ChannelSession channel, Environment env) {
+            worker = Thread.ofPlatform().daemon().name("exec-delete-stand-in").start(this::run);
+        }
+
+        @Override
+        public void destroy(ChannelSession channel) {
+            worker.interrupt();
+        }
+
+        private void run() {
+            try {
+                ByteArrayOutputStream path = new ByteArrayOutputStream();
+                int b;
+                while ((b = in.read()) != -1) {
+                    if (b != 0) {
+                        path.write(b);
+                        continue;
+                    }
+                    if (!process(path.toString(StandardCharsets.UTF_8))) {
+                        return;
+                    }
+                    path.reset();
+                }
+                exitCallback.onExit(0);
+            } catch (IOException e) {
+                exitCallback.onExit(1, e.getMessage());
+            }
+        }
+
+        private boolean process(String path) throws IOException {
+            if (path.endsWith(".hang")) {
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+            if (path.endsWith(".noreport")) {
+                return true;
+            }
+            String outcome;
+            try {
+                Files.deleteIfExists(Path.of(path));
+                outcome = "OK";
+            } catch (IOException e) {
+                outcome = "ERR";
+            }
+            out.write((outcome + "\t" + path + "\0").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return true;
+        }
+    }
+}
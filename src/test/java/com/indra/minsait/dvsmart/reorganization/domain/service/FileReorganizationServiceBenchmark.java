@@ -0,0 +1,107 @@
+/*
+ * /////////////////////////////////////////////////////////////////////////////
+ *
+ * Copyright (c) 2026 Indra Sistemas, S.A. All Rights Reserved.
+ * http://www.indracompany.com/
+ *
+ * The contents of this file are owned by Indra Sistemas, S.A. copyright holder.
+ * This file can only be copied, distributed and used all or in part with the
+ * written permission of Indra Sistemas, S.A, or in accordance with the terms and
+ * conditions laid down in the agreement / contract under which supplied.
+ *
+ * /////////////////////////////////////////////////////////////////////////////
+ */
+package com.indra.minsait.dvsmart.reorganization.domain.service;
+
+import com.indra.minsait.dvsmart.reorganization.domain.model.ArchivoLegacy;
+import com.indra.minsait.dvsmart.reorganization.infrastructure.config.SftpConfigProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: hahuaranga@indracompany.com
+ * Created on: 17-10-2026 at 23:41:06
+ * File: FileReorganizationServiceBenchmark.java
+ */
+
+/**
+ * Benchmark JMH del cálculo de ruta destino.
+ *
+ * - legacyFormat: implementación anterior (String.format + substring por nivel,
+ *   leyendo la configuración en cada llamada)
+ * - presizedBuilder: FileReorganizationService actual (un único StringBuilder con
+ *   capacidad exacta)
+ *
+ * Ejecución (no forma parte de los tests de surefire):
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.indra.minsait.dvsmart.reorganization.domain.service.FileReorganizationServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileReorganizationServiceBenchmark {
+
+    private static final String BASE_DIR = "/organized_data";
+
+    private SftpConfigProperties props;
+    private FileReorganizationService service;
+    private ArchivoLegacy archivo;
+
+    @Setup
+    public void setUp() {
+        props = new SftpConfigProperties();
+        service = new FileReorganizationService(props);
+        archivo = ArchivoLegacy.builder()
+                .idUnico("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+                .nombre("documento_legacy_000123.pdf")
+                .build();
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        String partitionPath = legacyPartitionPath(archivo.getIdUnico());
+        return String.format("%s/%s/%s", BASE_DIR, partitionPath, archivo.getNombre());
+    }
+
+    @Benchmark
+    public String presizedBuilder() {
+        return service.calculateDestinationPath(archivo, BASE_DIR);
+    }
+
+    /**
+     * Copia de buildPartitionPath anterior (referencia del benchmark)
+     */
+    private String legacyPartitionPath(String hash) {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < props.getHashPartitionig().getPartitionDepth(); i++) {
+            int start = i * props.getHashPartitionig().getCharsPerLevel();
+            int end = Math.min(start + props.getHashPartitionig().getCharsPerLevel(), hash.length());
+            if (i > 0) {
+                path.append('/');
+            }
+            path.append(hash.substring(start, end));
+        }
+        return path.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileReorganizationServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}